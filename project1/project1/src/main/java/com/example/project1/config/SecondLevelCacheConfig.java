@@ -0,0 +1,91 @@
+package com.example.project1.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Hibernate second-level cache on JCache/Ehcache 3.
+ * Every region is created up front with its own heap size and time to live, read from
+ * app.cache.l2.&lt;region&gt;.max-entries and .ttl-seconds, and with JCache statistics enabled
+ * so hit ratios can be reported. The cache manager is handed to Hibernate's JCache region
+ * factory; the remaining Hibernate cache settings are in application.properties.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheConfig.class);
+
+    public static final String ENTITY_REGION = "entities";
+    public static final String ENTITY_COLUMNS_REGION = "entityCustomColumns";
+    public static final String USER_REGION = "users";
+    public static final String USER_ROLES_REGION = "userRoles";
+    public static final String ROLE_REGION = "roles";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    /**
+     * Region name with its default maximum entries and time to live in seconds.
+     * Update timestamps must outlive every cached query result, so they never expire.
+     */
+    private static final Map<String, long[]> REGION_DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        REGION_DEFAULTS.put(ENTITY_REGION, new long[] {10000, 600});
+        REGION_DEFAULTS.put(ENTITY_COLUMNS_REGION, new long[] {10000, 600});
+        REGION_DEFAULTS.put(USER_REGION, new long[] {1000, 300});
+        REGION_DEFAULTS.put(USER_ROLES_REGION, new long[] {1000, 300});
+        REGION_DEFAULTS.put(ROLE_REGION, new long[] {100, 3600});
+        REGION_DEFAULTS.put(QUERY_RESULTS_REGION, new long[] {1000, 600});
+        REGION_DEFAULTS.put(UPDATE_TIMESTAMPS_REGION, new long[] {1000, 0});
+    }
+
+    public static Iterable<String> regionNames() {
+        return REGION_DEFAULTS.keySet();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager();
+
+        REGION_DEFAULTS.forEach((region, defaults) -> {
+            long maxEntries = environment.getProperty("app.cache.l2." + region + ".max-entries", Long.class, defaults[0]);
+            long ttlSeconds = environment.getProperty("app.cache.l2." + region + ".ttl-seconds", Long.class, defaults[1]);
+
+            CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+            if (ttlSeconds > 0) {
+                configuration = configuration.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)));
+            }
+            if (cacheManager.getCache(region) != null) {
+                cacheManager.destroyCache(region);
+            }
+            cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+            cacheManager.enableStatistics(region, true);
+            logger.info("Second-level cache region {}: {} entries, ttl {}s", region, maxEntries, ttlSeconds);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
@@ -18,7 +18,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -26,6 +25,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.example.project1.security.AuthEntryPointJwt;
 import com.example.project1.security.AuthTokenFilter;
+import com.example.project1.security.BoundedPasswordEncoder;
 import com.example.project1.security.UserDetailsServiceImpl;
 
 @Configuration
@@ -37,6 +37,19 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     
     @Value("${app.cors.ngrok-origin:}")
     private String ngrokOrigin;
+
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // 0 means one thread per available processor
+    @Value("${app.security.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.security.hashing.queue-capacity:50}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.hashing.timeout-ms:5000}")
+    private long hashingTimeoutMs;
     
     @Autowired
     UserDetailsServiceImpl userDetailsService;
@@ -61,8 +74,11 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        logger.info("Password hashing: BCrypt strength {}, {} threads, queue {}", bcryptStrength, threads, hashingQueueCapacity);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), threads,
+                hashingQueueCapacity, hashingTimeoutMs);
     }
     
     @Override
@@ -115,8 +131,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         }
         
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With", "If-Match", "If-None-Match"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Total-Count", "ETag"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
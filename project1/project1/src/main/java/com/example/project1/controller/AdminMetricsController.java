@@ -0,0 +1,47 @@
+package com.example.project1.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.project1.security.BoundedPasswordEncoder;
+import com.example.project1.service.AuditTrailWriter;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@Tag(name = "Metrics", description = "Runtime metrics of bounded resources")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminMetricsController {
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuditTrailWriter auditTrailWriter;
+
+    @Operation(summary = "Get password hashing metrics", description = "Returns queue depth, rejections and hash latency of the password hashing pool")
+    @ApiResponse(responseCode = "200", description = "Metrics returned successfully")
+    @GetMapping("/password-hashing")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(passwordEncoder.getStatistics());
+    }
+
+    @Operation(summary = "Get audit writer metrics", description = "Returns queue depth, batch sizes, spilled and dropped records of the audit trail writer")
+    @ApiResponse(responseCode = "200", description = "Metrics returned successfully")
+    @GetMapping("/audit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Long>> getAuditMetrics() {
+        return ResponseEntity.ok(auditTrailWriter.getStatistics());
+    }
+}
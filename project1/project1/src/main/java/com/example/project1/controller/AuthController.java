@@ -10,6 +10,7 @@ import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,6 +34,7 @@ import com.example.project1.model.User;
 import com.example.project1.repository.RoleRepository;
 import com.example.project1.repository.UserRepository;
 import com.example.project1.security.JwtUtils;
+import com.example.project1.security.PasswordHashingRejectedException;
 import com.example.project1.security.UserDetailsImpl;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -86,6 +88,9 @@ public class AuthController {
             logger.warn("Invalid credentials for user: {}", loginRequest.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new MessageResponse("Error: Invalid username or password!"));
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Login rejected for user: {} - {}", loginRequest.getUsername(), e.getMessage());
+            return tooManyRequests(e);
         } catch (Exception e) {
             logger.error("Authentication error for user: {} - {}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -144,6 +149,9 @@ public class AuthController {
             logger.info("User {} registered successfully!", signUpRequest.getUsername());
             return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
             
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Registration rejected for user: {} - {}", signUpRequest.getUsername(), e.getMessage());
+            return tooManyRequests(e);
         } catch (RuntimeException e) {
             logger.error("Registration error for user: {} - {}", signUpRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -154,4 +162,10 @@ public class AuthController {
                     .body(new MessageResponse("Error: An unexpected error occurred during registration."));
         }
     }
+
+    private ResponseEntity<MessageResponse> tooManyRequests(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Error: " + e.getMessage()));
+    }
 }
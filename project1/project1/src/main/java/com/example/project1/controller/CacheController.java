@@ -0,0 +1,44 @@
+package com.example.project1.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.project1.security.UserDetailsCache;
+import com.example.project1.service.SecondLevelCacheStatistics;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@Tag(name = "Caches", description = "Application cache metrics")
+@SecurityRequirement(name = "bearerAuth")
+public class CacheController {
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private SecondLevelCacheStatistics secondLevelCacheStatistics;
+
+    @Operation(summary = "Get cache statistics", description = "Returns hit, miss and eviction counts per cache, including the Hibernate second-level cache regions")
+    @ApiResponse(responseCode = "200", description = "Statistics returned successfully")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Long>>> getStatistics() {
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+        statistics.put("userDetails", userDetailsCache.getStatistics());
+        secondLevelCacheStatistics.getStatistics()
+                .forEach((region, values) -> statistics.put("hibernate." + region, values));
+        return ResponseEntity.ok(statistics);
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.project1.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -10,8 +8,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.example.project1.dto.BulkUploadResponse;
 import com.example.project1.dto.MessageResponse;
 import com.example.project1.dto.UploadFileResponse;
+import com.example.project1.model.StoredFile;
+import com.example.project1.service.BulkUploadService;
+import com.example.project1.service.FileDownloadService;
 import com.example.project1.service.FileStorageService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,9 +24,13 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.security.Principal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -36,12 +42,18 @@ public class FileController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private FileDownloadService fileDownloadService;
+
+    @Autowired
+    private BulkUploadService bulkUploadService;
+
     @Operation(summary = "Upload a file", description = "Upload a single file and return file details")
     @ApiResponse(responseCode = "200", description = "File uploaded successfully")
     @PostMapping("/upload")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public UploadFileResponse uploadFile(@RequestParam("file") MultipartFile file) {
-        String fileName = fileStorageService.storeFile(file);
+    public UploadFileResponse uploadFile(@RequestParam("file") MultipartFile file, Principal principal) {
+        String fileName = fileStorageService.storeFile(file, principal != null ? principal.getName() : null);
 
         String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path("/api/files/download/")
@@ -56,39 +68,67 @@ public class FileController {
     @ApiResponse(responseCode = "200", description = "Files uploaded successfully")
     @PostMapping("/uploadMultiple")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public List<UploadFileResponse> uploadMultipleFiles(@RequestParam("files") MultipartFile[] files) {
+    public List<UploadFileResponse> uploadMultipleFiles(@RequestParam("files") MultipartFile[] files, Principal principal) {
         return Arrays.asList(files)
                 .stream()
-                .map(file -> uploadFile(file))
+                .map(file -> uploadFile(file, principal))
                 .collect(Collectors.toList());
     }
 
-    @Operation(summary = "Download a file", description = "Download a file by its filename")
+    @Operation(summary = "Upload many files (streaming)", description = "Streams the parts of a multipart/form-data request to storage as they arrive, storing them in parallel, and returns a result per file")
+    @ApiResponse(responseCode = "200", description = "Per-file upload results")
+    @PostMapping(value = "/upload/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> uploadFilesStreaming(HttpServletRequest request, Principal principal) {
+        if (!BulkUploadService.isMultipart(request)) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: multipart/form-data request expected"));
+        }
+
+        List<BulkUploadResponse> results = bulkUploadService.upload(request, principal != null ? principal.getName() : null);
+        for (BulkUploadResponse result : results) {
+            if (result.getFileName() != null) {
+                result.setFileDownloadUri(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/files/download/")
+                        .path(result.getFileName())
+                        .toUriString());
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @Operation(summary = "Download a file", description = "Download a file by its filename. Supports Range, If-Range and conditional requests")
     @ApiResponse(responseCode = "200", description = "File downloaded successfully")
+    @ApiResponse(responseCode = "206", description = "Requested byte ranges returned")
+    @ApiResponse(responseCode = "304", description = "File not modified")
+    @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
     @GetMapping("/download/{fileName:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String fileName, HttpServletRequest request) {
-        // Load file as Resource
-        Resource resource = fileStorageService.loadFileAsResource(fileName);
-
-        // Try to determine file's content type
-        String contentType = null;
-        try {
-            contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-        } catch (IOException ex) {
-            // Default to octet-stream
-        }
+    public void downloadFile(@PathVariable String fileName, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Optional<StoredFile> stored = fileStorageService.findStoredFile(fileName);
+        Path file = stored.isPresent()
+                ? fileStorageService.getFilePath(stored.get())
+                : fileStorageService.getFilePath(fileName);
 
-        // Fallback to the default content type if type could not be determined
+        // Indexed files carry their content type; only files not yet migrated are probed
+        String contentType = stored.map(StoredFile::getContentType)
+                .orElseGet(() -> request.getServletContext().getMimeType(fileName));
         if (contentType == null) {
             contentType = "application/octet-stream";
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        fileDownloadService.send(file, contentType, fileName, request, response);
     }
     
+    @Operation(summary = "Migrate flat uploads", description = "Moves files from the old flat upload directory into the sharded layout and indexes them")
+    @ApiResponse(responseCode = "200", description = "Migration finished",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = MessageResponse.class)))
+    @PostMapping("/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> migrateFlatLayout() throws IOException {
+        int migrated = fileStorageService.migrateFlatLayout();
+        return ResponseEntity.ok(new MessageResponse("Migrated " + migrated + " files"));
+    }
+
     @Operation(summary = "Delete a file", description = "Delete a file by its filename")
     @ApiResponse(responseCode = "200", description = "File deleted successfully", 
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = MessageResponse.class)))
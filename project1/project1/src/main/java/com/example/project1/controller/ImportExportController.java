@@ -1,6 +1,9 @@
 package com.example.project1.controller;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -11,18 +14,26 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.project1.dto.ImportJobDTO;
 import com.example.project1.dto.MessageResponse;
 import com.example.project1.dto.MyEntityDTO;
+import com.example.project1.model.ImportJob;
 import com.example.project1.model.MyEntity;
+import com.example.project1.service.BulkImportService;
 import com.example.project1.service.ExportImportService;
+import com.example.project1.service.ImportJobService;
 import com.example.project1.service.CsvExportService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -45,22 +56,39 @@ public class ImportExportController {
     @Autowired
     private CsvExportService csvExportService;
     
-    @Operation(summary = "Export entities to Excel", description = "Exports all entities to an Excel file")
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private ImportJobService importJobService;
+    
+    @Operation(summary = "Export entities to Excel", description = "Exports all entities to an Excel file. "
+            + "By default rows are streamed with a bounded memory window; streaming=false builds the workbook in memory.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Entities exported successfully"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })    @GetMapping("/export/excel")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<InputStreamResource> exportToExcel() {
-        ByteArrayInputStream in = exportImportService.exportToExcel();
-        
+    public ResponseEntity<?> exportToExcel(@RequestParam(defaultValue = "true") boolean streaming) {
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=entities.xlsx");
+        MediaType excelType = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        
+        if (streaming) {
+            StreamingResponseBody body = out -> exportImportService.exportToExcel(out);
+            return ResponseEntity
+                    .ok()
+                    .headers(headers)
+                    .contentType(excelType)
+                    .body(body);
+        }
+        
+        ByteArrayInputStream in = exportImportService.exportToExcel();
         
         return ResponseEntity
                 .ok()
                 .headers(headers)
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .contentType(excelType)
                 .body(new InputStreamResource(in));
     }
       @Operation(summary = "Export entities to CSV", description = "Exports all entities to a CSV file")
@@ -69,8 +97,9 @@ public class ImportExportController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })    @GetMapping("/export/csv")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<InputStreamResource> exportToCSV() {
-        ByteArrayInputStream in = csvExportService.exportToCsv();
+    public ResponseEntity<StreamingResponseBody> exportToCSV() {
+        // Rows are written to the response as they are read; nothing is buffered in memory
+        StreamingResponseBody body = out -> csvExportService.exportToCsv(out);
         
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=entities.csv");
@@ -79,10 +108,11 @@ public class ImportExportController {
                 .ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("text/csv"))
-                .body(new InputStreamResource(in));
+                .body(body);
     }
     
-    @Operation(summary = "Import entities from Excel", description = "Imports entities from an Excel file")
+    @Operation(summary = "Import entities from Excel", description = "Imports entities from an Excel file. "
+            + "bulk=true writes .xlsx rows in JDBC-batched chunks, one transaction per chunk.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Entities imported successfully", 
                     content = @Content(mediaType = "application/json", 
@@ -93,7 +123,8 @@ public class ImportExportController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })    @PostMapping("/import/excel")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> importFromExcel(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> importFromExcel(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(defaultValue = "false") boolean bulk) {
         if (file.isEmpty()) {
             return ResponseEntity
                     .badRequest()
@@ -113,8 +144,18 @@ public class ImportExportController {
                     .body(new MessageResponse("Please upload an Excel file (xlsx or xls)"));
         }
           try {
-            List<MyEntity> importedEntities = exportImportService.importFromExcel(file);
-            return ResponseEntity.ok(new MessageResponse("Imported " + importedEntities.size() + " entities successfully"));
+            // .xlsx files are parsed with the streaming event model; legacy .xls still loads in memory
+            int imported;
+            if (!fileExtension.equals("xlsx")) {
+                imported = exportImportService.importFromExcel(file).size();
+            } else if (bulk) {
+                try (InputStream in = file.getInputStream()) {
+                    imported = bulkImportService.importExcel(in);
+                }
+            } else {
+                imported = exportImportService.importFromExcelStreaming(file);
+            }
+            return ResponseEntity.ok(new MessageResponse("Imported " + imported + " entities successfully"));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -122,7 +163,8 @@ public class ImportExportController {
         }
     }
     
-    @Operation(summary = "Import entities from CSV", description = "Imports entities from a CSV file")
+    @Operation(summary = "Import entities from CSV", description = "Imports entities from a CSV file. "
+            + "bulk=true writes rows in JDBC-batched chunks, one transaction per chunk.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Entities imported successfully", 
                     content = @Content(mediaType = "application/json", 
@@ -133,7 +175,8 @@ public class ImportExportController {
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })    @PostMapping("/import/csv")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> importFromCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> importFromCsv(@RequestParam("file") MultipartFile file,
+                                           @RequestParam(defaultValue = "false") boolean bulk) {
         if (file.isEmpty()) {
             return ResponseEntity
                     .badRequest()
@@ -155,12 +198,90 @@ public class ImportExportController {
         }
         
         try {
-            List<MyEntity> importedEntities = csvExportService.importFromCsv(file);
-            return ResponseEntity.ok(new MessageResponse("Imported " + importedEntities.size() + " entities successfully"));
+            int imported;
+            if (bulk) {
+                try (InputStream in = file.getInputStream()) {
+                    imported = bulkImportService.importCsv(in);
+                }
+            } else {
+                imported = csvExportService.importFromCsv(file).size();
+            }
+            return ResponseEntity.ok(new MessageResponse("Imported " + imported + " entities successfully"));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Failed to import data: " + e.getMessage()));
         }
     }
+    
+    @Operation(summary = "Start an import job", description = "Queues a CSV or .xlsx import to run in the background and returns the job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import job accepted",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ImportJobDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid file",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Import queue is full",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class)))
+    })    @PostMapping("/import/jobs")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> submitImportJob(@RequestParam("file") MultipartFile file, Authentication authentication) {
+        if (file.isEmpty()) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Please select a file to upload"));
+        }
+        
+        String fileName = file.getOriginalFilename();
+        if (fileName == null || !fileName.contains(".")) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Invalid file name"));
+        }
+        
+        String fileExtension = fileName.substring(fileName.lastIndexOf(".") + 1);
+        ImportJob.Format format;
+        if (fileExtension.equals("csv")) {
+            format = ImportJob.Format.CSV;
+        } else if (fileExtension.equals("xlsx")) {
+            format = ImportJob.Format.EXCEL;
+        } else {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Please upload a CSV or .xlsx file"));
+        }
+        
+        try {
+            ImportJob job = importJobService.submit(file, format, authentication != null ? authentication.getName() : null);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/data/import/jobs/{id}")
+                    .buildAndExpand(job.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(ImportJobDTO.fromJob(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Import queue is full, please retry later"));
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Failed to start import: " + e.getMessage()));
+        }
+    }
+    
+    @Operation(summary = "Get import job status", description = "Reports progress, rejected rows, throughput and ETA of an import job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job found",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ImportJobDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Job not found")
+    })    @GetMapping("/import/jobs/{id}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ImportJobDTO> getImportJob(@PathVariable String id) {
+        return importJobService.findById(id)
+                .map(job -> ResponseEntity.ok(ImportJobDTO.fromJob(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 }
@@ -7,21 +7,41 @@ import java.util.stream.Collectors;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.project1.dto.CursorPage;
+import com.example.project1.dto.EntityBatchOperation;
+import com.example.project1.dto.EntityBatchResult;
+import com.example.project1.dto.EntityPatchRequest;
+import com.example.project1.dto.EntityRevisionDTO;
+import com.example.project1.dto.EntitySearchRequest;
+import com.example.project1.dto.MessageResponse;
 import com.example.project1.dto.MyEntityDTO;
 import com.example.project1.model.MyEntity;
+import com.example.project1.service.EntityBatchService;
+import com.example.project1.service.EntityPatchService;
+import com.example.project1.service.EntityRevisionService;
+import com.example.project1.service.EntitySearchService;
 import com.example.project1.service.EntityService;
+import com.fasterxml.jackson.databind.JsonNode;
 
 @RestController
 @RequestMapping("/api/entities")
@@ -30,17 +50,75 @@ public class MyEntityRestController {
     @Autowired
     private EntityService entityService;
 
+    @Autowired
+    private EntitySearchService entitySearchService;
+
+    @Autowired
+    private EntityRevisionService entityRevisionService;
+
+    @Autowired
+    private EntityPatchService entityPatchService;
+
+    @Autowired
+    private EntityBatchService entityBatchService;
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    // Entity type recorded in the audit trail for MyEntity
+    private static final String AUDITED_TYPE = MyEntity.class.getSimpleName();
+
+    /**
+     * Lists entities. Without paging parameters the full list is returned for backward
+     * compatibility; with limit and/or cursor a keyset page is returned instead.
+     * The response carries a weak ETag for the whole collection, so a poll that sends it back
+     * in If-None-Match gets a 304 without any entity being loaded.
+     */
     @GetMapping
-    public List<MyEntityDTO> getAll() {
-        return entityService.findAll().stream()
-                .map(MyEntityDTO::fromEntity)
-                .collect(Collectors.toList());
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "false") boolean includeTotal,
+                                    WebRequest request) {
+        // Also sets the ETag header on the response
+        if (request.checkNotModified(entityService.collectionETag())) {
+            return null;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache());
+        if (includeTotal) {
+            headers.add(TOTAL_COUNT_HEADER, String.valueOf(entityService.count()));
+        }
+
+        if (limit == null && cursor == null) {
+            List<MyEntityDTO> all = entityService.findAll().stream()
+                    .map(MyEntityDTO::fromEntity)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok().headers(headers).body(all);
+        }
+
+        try {
+            CursorPage<MyEntityDTO> page = entityService
+                    .findPage(cursor, limit != null ? limit : EntityService.DEFAULT_PAGE_SIZE)
+                    .map(MyEntityDTO::fromEntity);
+            return ResponseEntity.ok().headers(headers).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
 
+    /**
+     * Returns an entity with its version as ETag; a matching If-None-Match gets a 304.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<MyEntityDTO> getById(@PathVariable Long id) {
         Optional<MyEntity> entity = entityService.findById(id);
-        return entity.map(value -> ResponseEntity.ok(MyEntityDTO.fromEntity(value)))
+        // Spring answers If-None-Match from the ETag of the returned entity
+        return entity.map(value -> ResponseEntity.ok()
+                        .eTag(eTag(value))
+                        .cacheControl(CacheControl.noCache())
+                        .body(MyEntityDTO.fromEntity(value)))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -50,24 +128,177 @@ public class MyEntityRestController {
         return new ResponseEntity<>(MyEntityDTO.fromEntity(saved), HttpStatus.CREATED);
     }
 
+    /**
+     * Applies a list of create, update and delete operations in chunked transactions and
+     * reports the outcome of each one; see {@link EntityBatchService}.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody List<EntityBatchOperation> operations) {
+        try {
+            List<EntityBatchResult> results = entityBatchService.execute(operations);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Server-side advanced search over entity fields and custom columns.
+     */
+    @PostMapping("/search")
+    public ResponseEntity<?> search(@Valid @RequestBody EntitySearchRequest request) {
+        try {
+            CursorPage<MyEntityDTO> page = entitySearchService.search(request).map(MyEntityDTO::fromEntity);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Replaces an entity. With If-Match the update only happens while the entity is still at
+     * that version (412 otherwise); without it, it is still refused with 409 if the entity
+     * changes between being read here and being written.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<MyEntityDTO> update(@PathVariable Long id, @Valid @RequestBody MyEntityDTO dto) {
+    public ResponseEntity<?> update(@PathVariable Long id, @Valid @RequestBody MyEntityDTO dto,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Optional<MyEntity> existing = entityService.findById(id);
         if (existing.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        String current = eTag(existing.get());
+        if (ifMatch != null && !matches(ifMatch, current)) {
+            return preconditionFailed(id, current);
+        }
         MyEntity entity = dto.toEntity();
         entity.setId(id);
-        MyEntity updated = entityService.save(entity);
-        return ResponseEntity.ok(MyEntityDTO.fromEntity(updated));
+        try {
+            MyEntity updated = entityService.update(entity, existing.get().getVersion());
+            return ResponseEntity.ok().eTag(eTag(updated)).body(MyEntityDTO.fromEntity(updated));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return concurrentModification(id, ifMatch);
+        }
     }
 
+    /**
+     * Partially updates an entity with a JSON merge patch (see {@link EntityPatchService} for
+     * the custom column forms), honouring If-Match like {@link #update}.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<MyEntity> existing = entityService.findById(id);
+        if (existing.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String current = eTag(existing.get());
+        if (ifMatch != null && !matches(ifMatch, current)) {
+            return preconditionFailed(id, current);
+        }
+        try {
+            MyEntity patched = entityPatchService.patch(id, existing.get().getVersion(), patch);
+            return ResponseEntity.ok().eTag(eTag(patched)).body(MyEntityDTO.fromEntity(patched));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return concurrentModification(id, ifMatch);
+        }
+    }
+
+    /**
+     * Patches many entities in one transaction; each item may carry the version it expects.
+     * Nothing is changed unless every patch applies.
+     */
+    @PatchMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> patchAll(@RequestBody List<EntityPatchRequest> requests) {
+        try {
+            return entityPatchService.patchAll(requests)
+                    .<ResponseEntity<?>>map(patched -> ResponseEntity.ok(patched.stream()
+                            .map(MyEntityDTO::fromEntity)
+                            .collect(Collectors.toList())))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(new MessageResponse("Some of the entities do not exist")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Our own version checks name the entity; a conflict found at commit may not
+            if (e.getIdentifier() == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse("An entity was modified concurrently; nothing was changed"));
+            }
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(new MessageResponse("Entity " + e.getIdentifier() + " has been modified; nothing was changed"));
+        }
+    }
+
+    /**
+     * Deletes an entity, honouring If-Match like {@link #update}.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        if (entityService.findById(id).isEmpty()) {
+    public ResponseEntity<?> delete(@PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<MyEntity> existing = entityService.findById(id);
+        if (existing.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        entityService.deleteById(id);
+        String current = eTag(existing.get());
+        if (ifMatch != null && !matches(ifMatch, current)) {
+            return preconditionFailed(id, current);
+        }
+        try {
+            entityService.delete(existing.get());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return concurrentModification(id, ifMatch);
+        }
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Lists the revisions of an entity, newest first, without their state.
+     */
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<List<EntityRevisionDTO>> getRevisions(@PathVariable Long id,
+                                                                @RequestParam(defaultValue = "50") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, EntityService.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(entityRevisionService.listRevisions(AUDITED_TYPE, id, pageSize));
+    }
+
+    /**
+     * Returns the state of an entity as of a revision, rebuilt from the nearest snapshot.
+     */
+    @GetMapping("/{id}/revisions/{revision}")
+    public ResponseEntity<EntityRevisionDTO> getRevision(@PathVariable Long id, @PathVariable int revision) {
+        return entityRevisionService.getRevision(AUDITED_TYPE, id, revision)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static String eTag(MyEntity entity) {
+        return "\"" + entity.getVersion() + "\"";
+    }
+
+    /**
+     * Strong comparison as If-Match requires: weak tags never match, "*" matches any entity.
+     */
+    private static boolean matches(String ifMatch, String eTag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<MessageResponse> preconditionFailed(Long id, String current) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(current)
+                .body(new MessageResponse("Entity " + id + " has been modified; current version is " + current));
+    }
+
+    private static ResponseEntity<MessageResponse> concurrentModification(Long id, String ifMatch) {
+        return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                .body(new MessageResponse("Entity " + id + " was modified concurrently; reload and retry"));
+    }
 }
@@ -18,6 +18,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.project1.dto.EntityStatistics;
+import com.example.project1.dto.MessageResponse;
 import com.example.project1.service.ReportService;
 import com.example.project1.service.EntityStatisticsService;
 
@@ -97,6 +99,14 @@ public class ReportController {
                 .body(new InputStreamResource(bis));
     }
     
+    @Operation(summary = "Get statistics summary", description = "Returns entity and custom column statistics as JSON")
+    @ApiResponse(responseCode = "200", description = "Statistics computed successfully")
+    @GetMapping("/statistics/summary")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<EntityStatistics> getStatisticsSummary() {
+        return ResponseEntity.ok(statisticsService.getStatistics());
+    }
+    
     @Operation(summary = "Generate date range report", description = "Generates a PDF report of entities created within a date range")
     @ApiResponse(responseCode = "200", description = "Report generated successfully")
     @GetMapping("/date-range")
@@ -124,9 +134,10 @@ public class ReportController {
     
     @Operation(summary = "Generate custom report", description = "Generates a custom PDF report based on template name")
     @ApiResponse(responseCode = "200", description = "Report generated successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid report name")
     @GetMapping("/custom/{reportName}")
     @PreAuthorize("hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<InputStreamResource> generateCustomReport(
+    public ResponseEntity<?> generateCustomReport(
             @PathVariable String reportName,
             @RequestParam(required = false) Map<String, String> queryParams) {
         
@@ -134,7 +145,12 @@ public class ReportController {
         Map<String, Object> reportParams = new HashMap<>();
         queryParams.forEach((key, value) -> reportParams.put(key, value));
         
-        ByteArrayInputStream bis = reportService.generateCustomReport(reportName, reportParams);
+        ByteArrayInputStream bis;
+        try {
+            bis = reportService.generateCustomReport(reportName, reportParams);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
         
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=" + reportName + "_report.pdf");
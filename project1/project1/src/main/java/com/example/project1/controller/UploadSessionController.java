@@ -0,0 +1,197 @@
+package com.example.project1.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.project1.dto.MessageResponse;
+import com.example.project1.dto.UploadSessionDTO;
+import com.example.project1.dto.UploadSessionRequest;
+import com.example.project1.model.UploadSession;
+import com.example.project1.service.UploadSessionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/uploads")
+@Tag(name = "Resumable Uploads", description = "Upload large files and imports in chunks that can be retried and resumed")
+@SecurityRequirement(name = "bearerAuth")
+public class UploadSessionController {
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Operation(summary = "Start a chunked upload", description = "Opens an upload session for a file of the given size. "
+            + "Chunks are then PUT by index; target selects whether the completed file is stored or imported")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Upload session created",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = UploadSessionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid size, chunk size or file name",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class)))
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> createSession(@Valid @RequestBody UploadSessionRequest request, Authentication authentication) {
+        try {
+            UploadSession session = uploadSessionService.create(request, authentication.getName());
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/uploads/{id}")
+                    .buildAndExpand(session.getId())
+                    .toUri();
+            return ResponseEntity.created(location).body(toDTO(session, List.of()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Upload a chunk", description = "Writes the raw request body as chunk N. Every chunk but the last "
+            + "must be exactly chunkSize bytes. An optional X-Chunk-SHA256 header is verified; re-sending a chunk replaces it")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Chunk stored"),
+        @ApiResponse(responseCode = "400", description = "Wrong index, length or checksum",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Upload session not found"),
+        @ApiResponse(responseCode = "409", description = "Upload session is no longer open or the chunk is being uploaded",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class)))
+    })
+    @PutMapping("/{id}/chunks/{index}")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> putChunk(@PathVariable String id, @PathVariable int index,
+                                      @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+                                      HttpServletRequest request, Authentication authentication) throws IOException {
+        Optional<UploadSession> session = find(id, authentication);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try (InputStream in = request.getInputStream()) {
+            uploadSessionService.putChunk(session.get(), index, in, sha256);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Get upload status", description = "Reports the received and missing chunk ranges, so an interrupted upload can resume")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload session found",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = UploadSessionDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Upload session not found")
+    })
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<UploadSessionDTO> getSession(@PathVariable String id, Authentication authentication) {
+        return find(id, authentication)
+                .map(session -> ResponseEntity.ok(toDTO(session, uploadSessionService.receivedChunks(session))))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Complete a chunked upload", description = "Checks that all chunks arrived and the optional whole-file "
+            + "checksum, then stores the file or queues the import job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File stored or import queued",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = UploadSessionDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Upload session not found"),
+        @ApiResponse(responseCode = "409", description = "Chunks missing, checksum mismatch or session not open",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Import queue is full",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class)))
+    })
+    @PostMapping("/{id}/complete")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> completeSession(@PathVariable String id, Authentication authentication) throws IOException {
+        Optional<UploadSession> session = find(id, authentication);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            UploadSession completed = uploadSessionService.complete(session.get());
+            return ResponseEntity.ok(toDTO(completed, List.of()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new MessageResponse("Import queue is full, please retry later"));
+        }
+    }
+
+    @Operation(summary = "Abort a chunked upload", description = "Discards the upload session and its chunks")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload session removed",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Upload session not found"),
+        @ApiResponse(responseCode = "409", description = "Upload session is being completed",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MessageResponse.class)))
+    })
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> abortSession(@PathVariable String id, Authentication authentication) throws IOException {
+        Optional<UploadSession> session = find(id, authentication);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            uploadSessionService.abort(session.get());
+            return ResponseEntity.ok(new MessageResponse("Upload session removed"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    private Optional<UploadSession> find(String id, Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        return uploadSessionService.find(id, authentication.getName(), admin);
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session, List<Integer> receivedChunks) {
+        UploadSessionDTO dto = UploadSessionDTO.fromSession(session, receivedChunks);
+        if (session.getResultFileName() != null) {
+            dto.setFileDownloadUri(ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/files/download/")
+                    .path(session.getResultFileName())
+                    .toUriString());
+        }
+        return dto;
+    }
+}
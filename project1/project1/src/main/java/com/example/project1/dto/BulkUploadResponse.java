@@ -0,0 +1,105 @@
+package com.example.project1.dto;
+
+/**
+ * Outcome of one file in a streaming bulk upload.
+ */
+public class BulkUploadResponse {
+
+    public enum Status {
+        STORED,
+        FAILED
+    }
+
+    private String originalFileName;
+    private String fileName;
+    private String fileDownloadUri;
+    private String fileType;
+    private long size;
+    private String checksum;
+    private Status status;
+    private String error;
+
+    public static BulkUploadResponse stored(String originalFileName, String fileName, String fileType,
+                                            long size, String checksum) {
+        BulkUploadResponse response = new BulkUploadResponse();
+        response.originalFileName = originalFileName;
+        response.fileName = fileName;
+        response.fileType = fileType;
+        response.size = size;
+        response.checksum = checksum;
+        response.status = Status.STORED;
+        return response;
+    }
+
+    public static BulkUploadResponse failed(String originalFileName, String error) {
+        BulkUploadResponse response = new BulkUploadResponse();
+        response.originalFileName = originalFileName;
+        response.status = Status.FAILED;
+        response.error = error;
+        return response;
+    }
+
+    public String getOriginalFileName() {
+        return originalFileName;
+    }
+
+    public void setOriginalFileName(String originalFileName) {
+        this.originalFileName = originalFileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileDownloadUri() {
+        return fileDownloadUri;
+    }
+
+    public void setFileDownloadUri(String fileDownloadUri) {
+        this.fileDownloadUri = fileDownloadUri;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
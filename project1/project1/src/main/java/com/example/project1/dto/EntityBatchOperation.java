@@ -0,0 +1,55 @@
+package com.example.project1.dto;
+
+/**
+ * One write of a batch request. CREATE takes entity; UPDATE takes id and entity; DELETE takes id.
+ * When version is given, UPDATE and DELETE only apply if the entity is still at that version.
+ */
+public class EntityBatchOperation {
+
+    // Enum for the kind of write
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private Type op;
+
+    private Long id;
+
+    private Long version;
+
+    private MyEntityDTO entity;
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public MyEntityDTO getEntity() {
+        return entity;
+    }
+
+    public void setEntity(MyEntityDTO entity) {
+        this.entity = entity;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.project1.dto;
+
+/**
+ * Outcome of one operation of a batch request, with an HTTP-style status:
+ * 201, 200 or 204 when applied, otherwise 400, 404, 409, 412 or 500 with a message.
+ */
+public class EntityBatchResult {
+    private int index;
+    private EntityBatchOperation.Type op;
+    private Long id;
+    private Long version;
+    private int status;
+    private String message;
+
+    public static EntityBatchResult applied(int index, EntityBatchOperation.Type op, Long id, Long version, int status) {
+        EntityBatchResult result = new EntityBatchResult();
+        result.index = index;
+        result.op = op;
+        result.id = id;
+        result.version = version;
+        result.status = status;
+        return result;
+    }
+
+    public static EntityBatchResult failed(int index, EntityBatchOperation.Type op, Long id, int status, String message) {
+        EntityBatchResult result = new EntityBatchResult();
+        result.index = index;
+        result.op = op;
+        result.id = id;
+        result.status = status;
+        result.message = message;
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public EntityBatchOperation.Type getOp() {
+        return op;
+    }
+
+    public void setOp(EntityBatchOperation.Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
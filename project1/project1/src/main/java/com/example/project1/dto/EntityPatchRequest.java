@@ -0,0 +1,39 @@
+package com.example.project1.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One item of a batch patch: a merge patch for the entity with the given id.
+ * When version is given the item only applies if the entity is still at that version.
+ */
+public class EntityPatchRequest {
+    private Long id;
+
+    private Long version;
+
+    private JsonNode patch;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public JsonNode getPatch() {
+        return patch;
+    }
+
+    public void setPatch(JsonNode patch) {
+        this.patch = patch;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.project1.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.project1.model.EntityRevision;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A revision of an entity. state is the full reconstructed state after the revision
+ * (before it, for a deletion) and is only filled in for single-revision reads.
+ */
+public class EntityRevisionDTO {
+    private String entityType;
+    private Long entityId;
+    private int revision;
+    private EntityRevision.RevisionType revisionType;
+    private LocalDateTime timestamp;
+    private Long userId;
+    private String username;
+    private String changeDescription;
+    private EntityRevision.Encoding encoding;
+    private int storedBytes;
+    private JsonNode state;
+
+    // Getters and setters
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+    public int getRevision() { return revision; }
+    public void setRevision(int revision) { this.revision = revision; }
+    public EntityRevision.RevisionType getRevisionType() { return revisionType; }
+    public void setRevisionType(EntityRevision.RevisionType revisionType) { this.revisionType = revisionType; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getChangeDescription() { return changeDescription; }
+    public void setChangeDescription(String changeDescription) { this.changeDescription = changeDescription; }
+    public EntityRevision.Encoding getEncoding() { return encoding; }
+    public void setEncoding(EntityRevision.Encoding encoding) { this.encoding = encoding; }
+    public int getStoredBytes() { return storedBytes; }
+    public void setStoredBytes(int storedBytes) { this.storedBytes = storedBytes; }
+    public JsonNode getState() { return state; }
+    public void setState(JsonNode state) { this.state = state; }
+
+    // Conversion methods
+    public static EntityRevisionDTO fromRevision(EntityRevision revision) {
+        EntityRevisionDTO dto = new EntityRevisionDTO();
+        dto.setEntityType(revision.getEntityType());
+        dto.setEntityId(revision.getEntityId());
+        dto.setRevision(revision.getRevisionNumber() != null ? revision.getRevisionNumber() : 0);
+        dto.setRevisionType(revision.getRevisionType());
+        dto.setTimestamp(revision.getTimestamp());
+        dto.setChangeDescription(revision.getChangeDescription());
+        dto.setEncoding(revision.getEncoding());
+        dto.setStoredBytes(revision.getPayload() != null ? revision.getPayload().length : 0);
+        if (revision.getUser() != null) {
+            dto.setUserId(revision.getUser().getId());
+            dto.setUsername(revision.getUser().getUsername());
+        }
+        return dto;
+    }
+}
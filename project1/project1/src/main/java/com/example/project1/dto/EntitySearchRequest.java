@@ -0,0 +1,32 @@
+package com.example.project1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Valid;
+
+/**
+ * Request body for POST /api/entities/search.
+ * Criteria are combined with AND unless matchAll is false, in which case any criterion may match.
+ */
+public class EntitySearchRequest {
+
+    @Valid
+    private List<SearchCriterionDTO> criteria = new ArrayList<>();
+
+    private boolean matchAll = true;
+
+    private String cursor;
+
+    private Integer limit;
+
+    // Getters and setters
+    public List<SearchCriterionDTO> getCriteria() { return criteria; }
+    public void setCriteria(List<SearchCriterionDTO> criteria) { this.criteria = criteria; }
+    public boolean isMatchAll() { return matchAll; }
+    public void setMatchAll(boolean matchAll) { this.matchAll = matchAll; }
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+}
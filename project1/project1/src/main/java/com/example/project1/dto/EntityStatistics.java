@@ -0,0 +1,52 @@
+package com.example.project1.dto;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.example.project1.model.CustomColumnType;
+
+/**
+ * Immutable snapshot of entity statistics, shared by the statistics report and the JSON summary.
+ */
+public final class EntityStatistics {
+    private final long totalEntities;
+    private final long entitiesWithCustomColumns;
+    private final long totalCustomColumns;
+    private final Map<CustomColumnType, Long> columnTypeCounts;
+    private final LocalDateTime computedAt;
+
+    public EntityStatistics(long totalEntities, long entitiesWithCustomColumns,
+                            Map<CustomColumnType, Long> columnTypeCounts, LocalDateTime computedAt) {
+        this.totalEntities = totalEntities;
+        this.entitiesWithCustomColumns = entitiesWithCustomColumns;
+        EnumMap<CustomColumnType, Long> counts = new EnumMap<>(CustomColumnType.class);
+        counts.putAll(columnTypeCounts);
+        this.columnTypeCounts = Collections.unmodifiableMap(counts);
+        this.totalCustomColumns = counts.values().stream().mapToLong(Long::longValue).sum();
+        this.computedAt = computedAt;
+    }
+
+    public long getTotalEntities() { return totalEntities; }
+    public long getEntitiesWithCustomColumns() { return entitiesWithCustomColumns; }
+    public long getTotalCustomColumns() { return totalCustomColumns; }
+    public Map<CustomColumnType, Long> getColumnTypeCounts() { return columnTypeCounts; }
+    public LocalDateTime getComputedAt() { return computedAt; }
+
+    /**
+     * The custom column type with the highest count, or "None" when there are no custom columns.
+     * Ties go to the type declared first.
+     */
+    public String getMostCommonColumnType() {
+        CustomColumnType mostCommon = null;
+        long highest = 0;
+        for (Map.Entry<CustomColumnType, Long> entry : columnTypeCounts.entrySet()) {
+            if (entry.getValue() > highest) {
+                highest = entry.getValue();
+                mostCommon = entry.getKey();
+            }
+        }
+        return mostCommon != null ? mostCommon.toString() : "None";
+    }
+}
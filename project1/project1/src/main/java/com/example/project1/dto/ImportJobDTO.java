@@ -0,0 +1,93 @@
+package com.example.project1.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.project1.model.ImportJob;
+
+/**
+ * Status report for an asynchronous import job, including throughput and an ETA
+ * estimated from the share of the input consumed so far (when the format allows it).
+ */
+public class ImportJobDTO {
+    private String id;
+    private String fileName;
+    private ImportJob.Format format;
+    private ImportJob.Status status;
+    private long rowsParsed;
+    private long rowsWritten;
+    private long rowsRejected;
+    private List<String> rejections = new ArrayList<>();
+    private Double rowsPerSecond;
+    private Long etaSeconds;
+    private String errorMessage;
+    private LocalDateTime createdDate;
+    private LocalDateTime startedDate;
+    private LocalDateTime finishedDate;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public ImportJob.Format getFormat() { return format; }
+    public void setFormat(ImportJob.Format format) { this.format = format; }
+    public ImportJob.Status getStatus() { return status; }
+    public void setStatus(ImportJob.Status status) { this.status = status; }
+    public long getRowsParsed() { return rowsParsed; }
+    public void setRowsParsed(long rowsParsed) { this.rowsParsed = rowsParsed; }
+    public long getRowsWritten() { return rowsWritten; }
+    public void setRowsWritten(long rowsWritten) { this.rowsWritten = rowsWritten; }
+    public long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(long rowsRejected) { this.rowsRejected = rowsRejected; }
+    public List<String> getRejections() { return rejections; }
+    public void setRejections(List<String> rejections) { this.rejections = rejections; }
+    public Double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(Double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+    public Long getEtaSeconds() { return etaSeconds; }
+    public void setEtaSeconds(Long etaSeconds) { this.etaSeconds = etaSeconds; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+    public LocalDateTime getStartedDate() { return startedDate; }
+    public void setStartedDate(LocalDateTime startedDate) { this.startedDate = startedDate; }
+    public LocalDateTime getFinishedDate() { return finishedDate; }
+    public void setFinishedDate(LocalDateTime finishedDate) { this.finishedDate = finishedDate; }
+
+    // Conversion methods
+    public static ImportJobDTO fromJob(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setFileName(job.getFileName());
+        dto.setFormat(job.getFormat());
+        dto.setStatus(job.getStatus());
+        dto.setRowsParsed(job.getRowsParsed());
+        dto.setRowsWritten(job.getRowsWritten());
+        dto.setRowsRejected(job.getRowsRejected());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedDate(job.getCreatedDate());
+        dto.setStartedDate(job.getStartedDate());
+        dto.setFinishedDate(job.getFinishedDate());
+
+        if (job.getRejections() != null && !job.getRejections().isEmpty()) {
+            dto.setRejections(new ArrayList<>(Arrays.asList(job.getRejections().split("\n"))));
+        }
+
+        if (job.getStartedDate() != null) {
+            LocalDateTime end = job.getFinishedDate() != null ? job.getFinishedDate() : LocalDateTime.now();
+            double elapsedSeconds = Math.max(Duration.between(job.getStartedDate(), end).toMillis(), 1) / 1000.0;
+            dto.setRowsPerSecond(job.getRowsParsed() / elapsedSeconds);
+
+            if (job.getStatus() == ImportJob.Status.RUNNING && job.getBytesRead() > 0 && job.getBytesTotal() > 0) {
+                double remaining = (double) (job.getBytesTotal() - job.getBytesRead()) / job.getBytesRead();
+                dto.setEtaSeconds(Math.max(0L, Math.round(elapsedSeconds * remaining)));
+            }
+        }
+
+        return dto;
+    }
+}
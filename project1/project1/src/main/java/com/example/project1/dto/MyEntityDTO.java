@@ -20,6 +20,9 @@ public class MyEntityDTO {
     
     private List<CustomColumnDTO> customColumns = new ArrayList<>();
 
+    // Read-only; conditional updates take the version from If-Match
+    private Long version;
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -28,12 +31,15 @@ public class MyEntityDTO {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     public List<CustomColumnDTO> getCustomColumns() { return customColumns; }
-    public void setCustomColumns(List<CustomColumnDTO> customColumns) { this.customColumns = customColumns; }    // Conversion methods
+    public void setCustomColumns(List<CustomColumnDTO> customColumns) { this.customColumns = customColumns; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }    // Conversion methods
     public static MyEntityDTO fromEntity(MyEntity entity) {
         MyEntityDTO dto = new MyEntityDTO();
         dto.setId(entity.getId());
         dto.setName(entity.getName());
         dto.setDescription(entity.getDescription());
+        dto.setVersion(entity.getVersion());
         
         // Convert custom columns
         if (entity.getCustomColumns() != null) {
@@ -69,6 +75,13 @@ public class MyEntityDTO {
                     CustomColumn col = new CustomColumn();
                     col.setName(colDTO.getName());
                     col.setValue(colDTO.getValue());
+                    if (colDTO.getColumnType() != null) {
+                        col.setColumnType(colDTO.getColumnType());
+                    }
+                    col.setRequired(colDTO.isRequired());
+                    col.setValidationPattern(colDTO.getValidationPattern());
+                    col.setValidationErrorMessage(colDTO.getValidationErrorMessage());
+                    col.setOptions(colDTO.getOptions());
                     return col;
                 })
                 .collect(Collectors.toList());
@@ -0,0 +1,69 @@
+package com.example.project1.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+
+import com.example.project1.model.CustomColumnType;
+
+/**
+ * A single predicate of an advanced search.
+ * For CUSTOM_COLUMN criteria, columnName and columnType narrow which custom columns are matched
+ * and the operator is applied to the column value.
+ */
+public class SearchCriterionDTO {
+
+    @NotNull(message = "Search field is required")
+    private Field field;
+
+    @NotNull(message = "Search operator is required")
+    private Operator operator;
+
+    private String columnName;
+
+    private CustomColumnType columnType;
+
+    private String value; // Used by EQ, CONTAINS and PREFIX
+
+    private List<String> values = new ArrayList<>(); // Used by IN
+
+    private String from; // Inclusive lower bound for RANGE
+
+    private String to; // Inclusive upper bound for RANGE
+
+    // Fields that can be searched
+    public enum Field {
+        NAME,
+        DESCRIPTION,
+        CREATED_DATE,
+        CUSTOM_COLUMN
+    }
+
+    // Supported comparison operators
+    public enum Operator {
+        EQ,
+        CONTAINS,
+        PREFIX,
+        RANGE,
+        IN
+    }
+
+    // Getters and setters
+    public Field getField() { return field; }
+    public void setField(Field field) { this.field = field; }
+    public Operator getOperator() { return operator; }
+    public void setOperator(Operator operator) { this.operator = operator; }
+    public String getColumnName() { return columnName; }
+    public void setColumnName(String columnName) { this.columnName = columnName; }
+    public CustomColumnType getColumnType() { return columnType; }
+    public void setColumnType(CustomColumnType columnType) { this.columnType = columnType; }
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+    public List<String> getValues() { return values; }
+    public void setValues(List<String> values) { this.values = values; }
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+}
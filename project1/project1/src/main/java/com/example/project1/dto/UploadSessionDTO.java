@@ -0,0 +1,103 @@
+package com.example.project1.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.project1.model.UploadSession;
+
+/**
+ * State of a chunked upload: which chunks have arrived (as merged index ranges such as
+ * "0-41"), which are still missing, and the result once completed.
+ */
+public class UploadSessionDTO {
+    private String id;
+    private String fileName;
+    private UploadSession.Target target;
+    private UploadSession.Status status;
+    private long totalSize;
+    private int chunkSize;
+    private int totalChunks;
+    private int receivedChunks;
+    private List<String> receivedRanges = new ArrayList<>();
+    private List<String> missingRanges = new ArrayList<>();
+    private String resultFileName;
+    private String fileDownloadUri;
+    private String importJobId;
+    private LocalDateTime createdDate;
+    private LocalDateTime expiresDate;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public UploadSession.Target getTarget() { return target; }
+    public void setTarget(UploadSession.Target target) { this.target = target; }
+    public UploadSession.Status getStatus() { return status; }
+    public void setStatus(UploadSession.Status status) { this.status = status; }
+    public long getTotalSize() { return totalSize; }
+    public void setTotalSize(long totalSize) { this.totalSize = totalSize; }
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    public int getTotalChunks() { return totalChunks; }
+    public void setTotalChunks(int totalChunks) { this.totalChunks = totalChunks; }
+    public int getReceivedChunks() { return receivedChunks; }
+    public void setReceivedChunks(int receivedChunks) { this.receivedChunks = receivedChunks; }
+    public List<String> getReceivedRanges() { return receivedRanges; }
+    public void setReceivedRanges(List<String> receivedRanges) { this.receivedRanges = receivedRanges; }
+    public List<String> getMissingRanges() { return missingRanges; }
+    public void setMissingRanges(List<String> missingRanges) { this.missingRanges = missingRanges; }
+    public String getResultFileName() { return resultFileName; }
+    public void setResultFileName(String resultFileName) { this.resultFileName = resultFileName; }
+    public String getFileDownloadUri() { return fileDownloadUri; }
+    public void setFileDownloadUri(String fileDownloadUri) { this.fileDownloadUri = fileDownloadUri; }
+    public String getImportJobId() { return importJobId; }
+    public void setImportJobId(String importJobId) { this.importJobId = importJobId; }
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+    public LocalDateTime getExpiresDate() { return expiresDate; }
+    public void setExpiresDate(LocalDateTime expiresDate) { this.expiresDate = expiresDate; }
+
+    // Conversion methods
+    public static UploadSessionDTO fromSession(UploadSession session, List<Integer> receivedIndexes) {
+        UploadSessionDTO dto = new UploadSessionDTO();
+        dto.setId(session.getId());
+        dto.setFileName(session.getFileName());
+        dto.setTarget(session.getTarget());
+        dto.setStatus(session.getStatus());
+        dto.setTotalSize(session.getTotalSize());
+        dto.setChunkSize(session.getChunkSize());
+        dto.setTotalChunks(session.getTotalChunks());
+        dto.setReceivedChunks(receivedIndexes.size());
+        dto.setResultFileName(session.getResultFileName());
+        dto.setImportJobId(session.getImportJobId());
+        dto.setCreatedDate(session.getCreatedDate());
+        dto.setExpiresDate(session.getExpiresDate());
+
+        // Indexes arrive sorted; collapse them into ranges and record the gaps between them
+        int expected = 0;
+        int i = 0;
+        while (i < receivedIndexes.size()) {
+            int start = receivedIndexes.get(i);
+            int end = start;
+            while (i + 1 < receivedIndexes.size() && receivedIndexes.get(i + 1) == end + 1) {
+                end = receivedIndexes.get(++i);
+            }
+            i++;
+            if (start > expected) {
+                dto.missingRanges.add(range(expected, start - 1));
+            }
+            dto.receivedRanges.add(range(start, end));
+            expected = end + 1;
+        }
+        if (expected < session.getTotalChunks() && session.getStatus() != UploadSession.Status.COMPLETED) {
+            dto.missingRanges.add(range(expected, session.getTotalChunks() - 1));
+        }
+        return dto;
+    }
+
+    private static String range(int start, int end) {
+        return start == end ? Integer.toString(start) : start + "-" + end;
+    }
+}
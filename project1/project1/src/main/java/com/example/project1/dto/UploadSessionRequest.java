@@ -0,0 +1,83 @@
+package com.example.project1.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+
+import com.example.project1.model.UploadSession;
+
+/**
+ * Opens a chunked upload. chunkSize defaults to the server setting; sha256, when given,
+ * is checked against the assembled file.
+ */
+public class UploadSessionRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String fileName;
+
+    @Size(max = 100)
+    private String contentType;
+
+    @NotNull
+    @PositiveOrZero
+    private Long totalSize;
+
+    @Positive
+    private Integer chunkSize;
+
+    @Pattern(regexp = "[0-9a-fA-F]{64}")
+    private String sha256;
+
+    private UploadSession.Target target = UploadSession.Target.FILE;
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public UploadSession.Target getTarget() {
+        return target;
+    }
+
+    public void setTarget(UploadSession.Target target) {
+        this.target = target;
+    }
+}
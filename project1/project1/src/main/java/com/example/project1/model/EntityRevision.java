@@ -6,24 +6,33 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Entity for tracking changes to records (audit trail).
+ * Revisions are numbered per entity. Rows written before delta encoding carry the full
+ * previousState/newState (encoding FULL); newer rows carry a payload that is either a full
+ * snapshot of the state or a JSON Patch against the previous revision, gzip-compressed when large.
  */
 @Entity
-@Table(name = "entity_revisions")
+@Table(name = "entity_revisions",
+       indexes = @Index(columnList = "entityType, entityId, revisionNumber"))
 public class EntityRevision {
 
+    // Pooled sequence ids (unlike IDENTITY) let the audit writer batch its inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_revision_seq")
+    @SequenceGenerator(name = "entity_revision_seq", sequenceName = "entity_revision_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -32,7 +41,9 @@ public class EntityRevision {
     @Column(nullable = false)
     private Long entityId;
     
-    @ManyToOne
+    private Integer revisionNumber;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
     
     @Column(nullable = false)
@@ -51,6 +62,15 @@ public class EntityRevision {
     
     private String changeDescription;
     
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Encoding encoding;
+    
+    @Lob
+    private byte[] payload;
+    
+    private boolean compressed;
+    
     // Enum for revision types
     public enum RevisionType {
         CREATE, 
@@ -58,6 +78,13 @@ public class EntityRevision {
         DELETE
     }
     
+    // Enum for how the state of a revision is stored
+    public enum Encoding {
+        FULL,
+        SNAPSHOT,
+        DELTA
+    }
+    
     // Constructors
     public EntityRevision() {}
     
@@ -98,6 +125,14 @@ public class EntityRevision {
         this.entityId = entityId;
     }
 
+    public Integer getRevisionNumber() {
+        return revisionNumber;
+    }
+
+    public void setRevisionNumber(Integer revisionNumber) {
+        this.revisionNumber = revisionNumber;
+    }
+
     public User getUser() {
         return user;
     }
@@ -145,4 +180,28 @@ public class EntityRevision {
     public void setChangeDescription(String changeDescription) {
         this.changeDescription = changeDescription;
     }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
 }
@@ -4,23 +4,42 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.OrderColumn;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.example.project1.config.SecondLevelCacheConfig;
+import com.example.project1.service.EntityStatisticsListener;
+
 @Entity
+@EntityListeners(EntityStatisticsListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ENTITY_REGION)
+// Updates set only the changed columns, so a patch to the name does not rewrite the description
+@DynamicUpdate
 public class MyEntity {
 
+    // Pooled sequence ids (unlike IDENTITY) let Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "my_entity_seq")
+    @SequenceGenerator(name = "my_entity_seq", sequenceName = "my_entity_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -30,8 +49,12 @@ public class MyEntity {
     @Size(max = 255, message = "Description must be at most 255 characters")
     private String description;
     
+    // The order column gives each row an identity (entity_id, column_order), so Hibernate updates,
+    // inserts or deletes only the rows that changed instead of rewriting the whole collection
     @ElementCollection
     @CollectionTable(name = "entity_custom_columns", joinColumns = @JoinColumn(name = "entity_id"))
+    @OrderColumn(name = "column_order")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ENTITY_COLUMNS_REGION)
     private List<CustomColumn> customColumns = new ArrayList<>();
     
     @ManyToOne
@@ -51,6 +74,10 @@ public class MyEntity {
     @Column(name = "is_deleted")
     private boolean deleted = false;
 
+    // Optimistic lock; also the entity's ETag. Primitive so that new entities are still recognised by their id
+    @Version
+    private long version;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -80,8 +107,18 @@ public class MyEntity {
         return customColumns;
     }
 
+    /**
+     * Replaces the contents of the collection rather than the collection itself, so that on a
+     * managed entity the change is diffed against the stored rows instead of recreating them.
+     */
     public void setCustomColumns(List<CustomColumn> customColumns) {
-        this.customColumns = customColumns;
+        if (customColumns == this.customColumns) {
+            return;
+        }
+        this.customColumns.clear();
+        if (customColumns != null) {
+            this.customColumns.addAll(customColumns);
+        }
     }
     
     public User getCreatedBy() {
@@ -123,6 +160,14 @@ public class MyEntity {
     public void setDeleted(boolean deleted) {
         this.deleted = deleted;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
     
     // Utility method to update audit information before saving
     public void updateAuditInfo(User user) {
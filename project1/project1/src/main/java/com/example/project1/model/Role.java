@@ -1,7 +1,9 @@
 package com.example.project1.model;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
@@ -9,11 +11,20 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.project1.config.SecondLevelCacheConfig;
+import com.example.project1.security.UserCacheEvictionListener;
+
 /**
  * Role entity for user authorization.
  */
 @Entity
+@EntityListeners(UserCacheEvictionListener.class)
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ROLE_REGION)
 public class Role {
     
     @Id
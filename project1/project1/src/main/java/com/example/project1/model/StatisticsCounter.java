@@ -0,0 +1,60 @@
+package com.example.project1.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * One materialized statistics counter, kept up to date by the entity write paths
+ * and periodically reconciled against the real tables.
+ */
+@Entity
+@Table(name = "statistics_counters")
+public class StatisticsCounter {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "counter_value", nullable = false)
+    private long value;
+
+    private LocalDateTime updatedDate;
+
+    // Constructors
+    public StatisticsCounter() {}
+
+    public StatisticsCounter(String name, long value) {
+        this.name = name;
+        this.value = value;
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.project1.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A unique piece of uploaded content, stored once on disk under its SHA-256.
+ * refCount is the number of {@link StoredFile} names pointing at it.
+ */
+@Entity
+@Table(name = "stored_blobs")
+public class StoredBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private long size;
+
+    private long refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+
+    // Constructors
+    public StoredBlob() {}
+
+    public StoredBlob(String hash, long size) {
+        this.hash = hash;
+        this.size = size;
+        this.refCount = 1;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(long refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+}
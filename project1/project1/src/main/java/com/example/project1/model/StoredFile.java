@@ -0,0 +1,122 @@
+package com.example.project1.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Metadata index entry of an uploaded file, keyed by its public name.
+ * blobHash is set for files kept in the content-addressed blob store and null for files
+ * stored individually.
+ */
+@Entity
+@Table(name = "stored_files")
+public class StoredFile {
+
+    @Id
+    @Column(length = 100)
+    private String fileName;
+
+    @Column(length = 64)
+    private String blobHash;
+
+    private String originalFileName;
+
+    @Column(length = 100)
+    private String contentType;
+
+    private long size;
+
+    // SHA-256 of the content, hex encoded
+    @Column(length = 64)
+    private String checksum;
+
+    @Column(length = 50)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+
+    // Constructors
+    public StoredFile() {}
+
+    public StoredFile(String fileName, String blobHash, String originalFileName, String contentType,
+                      long size, String checksum, String owner) {
+        this.fileName = fileName;
+        this.blobHash = blobHash;
+        this.originalFileName = originalFileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.checksum = checksum;
+        this.owner = owner;
+        this.createdDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getBlobHash() {
+        return blobHash;
+    }
+
+    public void setBlobHash(String blobHash) {
+        this.blobHash = blobHash;
+    }
+
+    public String getOriginalFileName() {
+        return originalFileName;
+    }
+
+    public void setOriginalFileName(String originalFileName) {
+        this.originalFileName = originalFileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+}
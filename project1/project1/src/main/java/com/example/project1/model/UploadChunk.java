@@ -0,0 +1,99 @@
+package com.example.project1.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * A chunk of an {@link UploadSession} that has been received and verified.
+ */
+@Entity
+@Table(name = "upload_chunks",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "chunk_index"}),
+       indexes = @Index(columnList = "session_id"))
+public class UploadChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @Column(name = "chunk_index", nullable = false)
+    private int chunkIndex;
+
+    private long size;
+
+    @Column(length = 64)
+    private String checksum;
+
+    private LocalDateTime receivedDate;
+
+    // Constructors
+    public UploadChunk() {}
+
+    public UploadChunk(String sessionId, int chunkIndex, long size, String checksum) {
+        this.sessionId = sessionId;
+        this.chunkIndex = chunkIndex;
+        this.size = size;
+        this.checksum = checksum;
+        this.receivedDate = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(int chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public LocalDateTime getReceivedDate() {
+        return receivedDate;
+    }
+
+    public void setReceivedDate(LocalDateTime receivedDate) {
+        this.receivedDate = receivedDate;
+    }
+}
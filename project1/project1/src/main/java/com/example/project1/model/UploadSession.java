@@ -0,0 +1,211 @@
+package com.example.project1.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A chunked, resumable upload. Chunks are written in place into one work file;
+ * the received chunks are tracked in upload_chunks.
+ */
+@Entity
+@Table(name = "upload_sessions")
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(length = 100)
+    private String contentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Target target;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private long totalSize;
+
+    private int chunkSize;
+
+    // Optional SHA-256 of the whole file, verified on completion
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(length = 50)
+    private String owner;
+
+    // Set on completion: the stored file name or the import job id
+    private String resultFileName;
+
+    @Column(length = 36)
+    private String importJobId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDate;
+
+    private LocalDateTime expiresDate;
+
+    // Enum for what happens with the assembled file
+    public enum Target {
+        FILE,
+        IMPORT_CSV,
+        IMPORT_EXCEL
+    }
+
+    // Enum for session lifecycle states
+    public enum Status {
+        OPEN,
+        COMPLETING,
+        COMPLETED
+    }
+
+    // Constructors
+    public UploadSession() {}
+
+    public UploadSession(String id, String fileName, String contentType, Target target, long totalSize,
+                         int chunkSize, String sha256, String owner, LocalDateTime expiresDate) {
+        this.id = id;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.target = target;
+        this.totalSize = totalSize;
+        this.chunkSize = chunkSize;
+        this.sha256 = sha256;
+        this.owner = owner;
+        this.status = Status.OPEN;
+        this.createdDate = LocalDateTime.now();
+        this.expiresDate = expiresDate;
+    }
+
+    /**
+     * Number of chunks the file is split into; the last one may be shorter.
+     */
+    public int getTotalChunks() {
+        return (int) ((totalSize + chunkSize - 1) / chunkSize);
+    }
+
+    public long getChunkStart(int index) {
+        return (long) index * chunkSize;
+    }
+
+    public long getChunkLength(int index) {
+        return Math.min(chunkSize, totalSize - getChunkStart(index));
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public void setTarget(Target target) {
+        this.target = target;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public String getResultFileName() {
+        return resultFileName;
+    }
+
+    public void setResultFileName(String resultFileName) {
+        this.resultFileName = resultFileName;
+    }
+
+    public String getImportJobId() {
+        return importJobId;
+    }
+
+    public void setImportJobId(String importJobId) {
+        this.importJobId = importJobId;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public LocalDateTime getExpiresDate() {
+        return expiresDate;
+    }
+
+    public void setExpiresDate(LocalDateTime expiresDate) {
+        this.expiresDate = expiresDate;
+    }
+}
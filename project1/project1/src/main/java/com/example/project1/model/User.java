@@ -1,10 +1,13 @@
 package com.example.project1.model;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -17,11 +20,20 @@ import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.project1.config.SecondLevelCacheConfig;
+import com.example.project1.security.UserCacheEvictionListener;
+
 /**
  * User entity for authentication and authorization.
  */
 @Entity
+@EntityListeners(UserCacheEvictionListener.class)
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USER_REGION)
 public class User {
     
     @Id
@@ -53,7 +65,13 @@ public class User {
     
     private boolean enabled = true;
     
+    // Embedded in issued JWTs; bumped whenever roles or the enabled flag change, which
+    // invalidates every token issued before
+    @Column(nullable = false)
+    private int tokenVersion = 0;
+    
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USER_ROLES_REGION)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -125,18 +143,53 @@ public class User {
     }
 
     public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            revokeTokens();
+        }
         this.enabled = enabled;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    // Read-only so that every role change goes through the setters below
     public Set<Role> getRoles() {
-        return roles;
+        return Collections.unmodifiableSet(roles);
     }
 
+    // null clears the roles, as an empty set does
     public void setRoles(Set<Role> roles) {
-        this.roles = roles;
+        if (roles == null) {
+            roles = Collections.emptySet();
+        }
+        if (!this.roles.equals(roles)) {
+            this.roles.clear();
+            this.roles.addAll(roles);
+            revokeTokens();
+        }
     }
     
     public void addRole(Role role) {
-        this.roles.add(role);
+        if (this.roles.add(role)) {
+            revokeTokens();
+        }
+    }
+
+    public void removeRole(Role role) {
+        if (this.roles.remove(role)) {
+            revokeTokens();
+        }
+    }
+
+    // A user that has not been saved yet has no tokens to revoke
+    private void revokeTokens() {
+        if (id != null) {
+            tokenVersion++;
+        }
     }
 }
@@ -1,10 +1,109 @@
 package com.example.project1.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import com.example.project1.model.MyEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface EntityRepository extends JpaRepository<MyEntity, Long> {
-    // Additional query methods can be defined here
-}
\ No newline at end of file
+
+    /**
+     * Keyset page of entity ids strictly after the given id, in ascending order.
+     */
+    @Query("select e.id from MyEntity e where e.id > :afterId order by e.id asc")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Loads the given entities together with their custom columns in a single query.
+     */
+    @Query("select distinct e from MyEntity e left join fetch e.customColumns where e.id in :ids order by e.id asc")
+    List<MyEntity> findAllWithCustomColumnsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams all entities ordered by id through a read-only, fetch-size-tuned cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select e from MyEntity e order by e.id asc")
+    Stream<MyEntity> streamAllOrderedById();
+
+    /**
+     * Distinct custom column names across all entities in order of first appearance (by the
+     * lowest entity id that has the name, then the lowest position the name has anywhere),
+     * used to build export headers. One grouped pass over the custom column table.
+     */
+    @Query("select c.name from MyEntity e join e.customColumns c group by c.name "
+            + "order by min(e.id), min(index(c))")
+    List<String> findDistinctCustomColumnNames();
+
+    /**
+     * Custom column values for a batch of entities as (entityId, name, value) tuples.
+     */
+    @Query("select e.id, c.name, c.value from MyEntity e join e.customColumns c where e.id in :ids")
+    List<Object[]> findCustomColumnValuesByEntityIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * (count, max id, sum of versions) over all entities in one row, for the collection ETag.
+     * Any insert, update or delete changes at least one of the three.
+     */
+    @Query("select count(e), coalesce(max(e.id), 0), coalesce(sum(e.version), 0) from MyEntity e")
+    List<Object[]> findCollectionVersion();
+
+    /**
+     * Custom column types of the given entities as (entityId, columnType) tuples.
+     */
+    @Query("select e.id, c.columnType from MyEntity e join e.customColumns c where e.id in :ids")
+    List<Object[]> findColumnTypesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Current versions as (id, version) tuples for the given ids.
+     */
+    @Query("select e.id, e.version from MyEntity e where e.id in :ids")
+    List<Object[]> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Gives detached entities that carry an id the version currently stored, so that saving
+     * them overwrites the row instead of failing the optimistic lock check. Imports identify
+     * rows by id only and keep their last-writer-wins behaviour this way.
+     */
+    default void adoptCurrentVersions(Collection<MyEntity> entities) {
+        List<Long> ids = new ArrayList<>();
+        for (MyEntity entity : entities) {
+            if (entity.getId() != null) {
+                ids.add(entity.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : findVersionsByIdIn(ids)) {
+            versions.put((Long) row[0], (Long) row[1]);
+        }
+        for (MyEntity entity : entities) {
+            Long version = entity.getId() != null ? versions.get(entity.getId()) : null;
+            if (version != null) {
+                entity.setVersion(version);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.project1.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.project1.model.EntityRevision;
+
+@Repository
+public interface EntityRevisionRepository extends JpaRepository<EntityRevision, Long> {
+
+    @Query("select max(r.revisionNumber) from EntityRevision r where r.entityType = :type and r.entityId = :id")
+    Integer findLatestRevisionNumber(@Param("type") String entityType, @Param("id") Long entityId);
+
+    /**
+     * Revisions that hold a full state (anything but a delta) at or before the given number, newest first.
+     */
+    @Query("select r from EntityRevision r where r.entityType = :type and r.entityId = :id "
+            + "and r.revisionNumber <= :revision and r.encoding <> :delta order by r.revisionNumber desc")
+    List<EntityRevision> findFullStatesUpTo(@Param("type") String entityType, @Param("id") Long entityId,
+                                            @Param("revision") int revisionNumber,
+                                            @Param("delta") EntityRevision.Encoding delta, Pageable pageable);
+
+    @Query("select r from EntityRevision r where r.entityType = :type and r.entityId = :id "
+            + "and r.revisionNumber > :after and r.revisionNumber <= :upTo order by r.revisionNumber")
+    List<EntityRevision> findRevisionsBetween(@Param("type") String entityType, @Param("id") Long entityId,
+                                              @Param("after") int after, @Param("upTo") int upTo);
+
+    @Query("select r from EntityRevision r where r.entityType = :type and r.entityId = :id "
+            + "and r.revisionNumber is not null order by r.revisionNumber desc")
+    List<EntityRevision> findNumberedRevisions(@Param("type") String entityType, @Param("id") Long entityId,
+                                               Pageable pageable);
+}
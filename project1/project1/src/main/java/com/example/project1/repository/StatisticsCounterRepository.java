@@ -0,0 +1,24 @@
+package com.example.project1.repository;
+
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.project1.model.StatisticsCounter;
+
+@Repository
+public interface StatisticsCounterRepository extends JpaRepository<StatisticsCounter, String> {
+
+    /**
+     * Every counter row, write-locked until the transaction ends so that no other transaction
+     * can apply its counter changes (and so commit its entity writes) in the meantime.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from StatisticsCounter c")
+    List<StatisticsCounter> findAllForUpdate();
+}
@@ -0,0 +1,10 @@
+package com.example.project1.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.project1.model.StoredFile;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+}
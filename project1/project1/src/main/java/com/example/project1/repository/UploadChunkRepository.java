@@ -0,0 +1,25 @@
+package com.example.project1.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.project1.model.UploadChunk;
+
+@Repository
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+    @Query("select c.chunkIndex from UploadChunk c where c.sessionId = :sessionId order by c.chunkIndex")
+    List<Integer> findChunkIndexes(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Query("delete from UploadChunk c where c.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Query("delete from UploadChunk c where c.sessionId = :sessionId and c.chunkIndex = :chunkIndex")
+    int deleteBySessionIdAndChunkIndex(@Param("sessionId") String sessionId, @Param("chunkIndex") int chunkIndex);
+}
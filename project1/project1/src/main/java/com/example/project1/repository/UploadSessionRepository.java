@@ -0,0 +1,36 @@
+package com.example.project1.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.project1.model.UploadSession;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    @Query("select s.status from UploadSession s where s.id = :id")
+    Optional<UploadSession.Status> findStatusById(@Param("id") String id);
+
+    List<UploadSession> findByStatusInAndExpiresDateBefore(Collection<UploadSession.Status> statuses, LocalDateTime date);
+
+    // Compare-and-set on the status, so only one caller completes a session
+    @Modifying
+    @Query("update UploadSession s set s.status = :to where s.id = :id and s.status = :from")
+    int updateStatus(@Param("id") String id, @Param("from") UploadSession.Status from,
+                     @Param("to") UploadSession.Status to);
+
+    @Modifying
+    @Query("update UploadSession s set s.status = :to where s.status = :from")
+    int updateAllStatus(@Param("from") UploadSession.Status from, @Param("to") UploadSession.Status to);
+
+    @Modifying
+    @Query("update UploadSession s set s.expiresDate = :expiresDate where s.id = :id")
+    int extendExpiry(@Param("id") String id, @Param("expiresDate") LocalDateTime expiresDate);
+}
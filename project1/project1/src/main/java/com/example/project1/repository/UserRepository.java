@@ -3,6 +3,8 @@ package com.example.project1.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.project1.model.User;
@@ -12,4 +14,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    // Token version of an enabled user; no roles join
+    @Query("select u.tokenVersion from User u where u.id = :id and u.enabled = true")
+    Optional<Integer> findActiveTokenVersion(@Param("id") Long id);
 }
@@ -0,0 +1,12 @@
+package com.example.project1.security;
+
+/**
+ * Thrown when the password hashing bulkhead has no capacity left; answered with 429.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
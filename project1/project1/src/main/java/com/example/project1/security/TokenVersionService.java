@@ -0,0 +1,59 @@
+package com.example.project1.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.project1.repository.UserRepository;
+
+/**
+ * Keeps the current token version of each user in memory so the JWT filter can reject
+ * revoked tokens without loading the user. A version is read from the database once per user
+ * and dropped by {@link UserCacheEvictionListener} whenever that user is written.
+ * The version itself is bumped by {@link com.example.project1.model.User} when its roles
+ * or enabled flag change.
+ */
+@Service
+public class TokenVersionService {
+
+    // Cached for disabled or deleted users; no token carries a negative version
+    private static final int NO_VALID_VERSION = -1;
+
+    private final ConcurrentMap<Long, Integer> currentVersions = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    @Autowired
+    public TokenVersionService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        int current = currentVersions.computeIfAbsent(userId,
+                id -> userRepository.findActiveTokenVersion(id).orElse(NO_VALID_VERSION));
+        return current == tokenVersion;
+    }
+
+    /**
+     * Drops the cached version now and again after the surrounding transaction commits,
+     * since a concurrent request may re-read the old version before then.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        currentVersions.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    currentVersions.remove(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.project1.security;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.project1.model.Role;
+import com.example.project1.model.User;
+
+/**
+ * JPA listener on {@link User} and {@link Role} that evicts cached principals and token
+ * versions on every write, including changes to a user's role set. The caches are looked up
+ * lazily because the listener is created while the EntityManagerFactory starts.
+ */
+public class UserCacheEvictionListener {
+
+    private final ObjectProvider<UserDetailsCache> userDetailsCache;
+
+    private final ObjectProvider<TokenVersionService> tokenVersionService;
+
+    public UserCacheEvictionListener(ObjectProvider<UserDetailsCache> userDetailsCache,
+                                     ObjectProvider<TokenVersionService> tokenVersionService) {
+        this.userDetailsCache = userDetailsCache;
+        this.tokenVersionService = tokenVersionService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void written(Object entity) {
+        if (entity instanceof User) {
+            User user = (User) entity;
+            userDetailsCache.getObject().evictUser(user.getId(), user.getUsername());
+            tokenVersionService.getObject().evict(user.getId());
+        } else if (entity instanceof Role) {
+            // Roles are shared, so every cached principal may hold a stale copy
+            userDetailsCache.getObject().evictAll();
+        }
+    }
+}
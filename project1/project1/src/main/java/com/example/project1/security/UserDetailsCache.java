@@ -0,0 +1,144 @@
+package com.example.project1.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Size- and TTL-bounded cache of loaded principals, keyed by username.
+ * Least recently used entries are dropped once the cache is full. Entries are evicted
+ * by {@link UserCacheEvictionListener} whenever a user or role is written.
+ */
+@Component
+public class UserDetailsCache {
+
+    @Value("${app.security.user-cache.max-size:1000}")
+    private int maxSize;
+
+    @Value("${app.security.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Access-ordered, guarded by its own monitor
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private static class Entry {
+        private final UserDetailsImpl user;
+        private final long expiresAt;
+
+        Entry(UserDetailsImpl user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * @return the cached principal, or null if absent or expired
+     */
+    public UserDetailsImpl get(String username) {
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.user;
+            }
+            if (entry != null) {
+                entries.remove(username);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(UserDetailsImpl user) {
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        synchronized (entries) {
+            entries.put(user.getUsername(), new Entry(user, expiresAt));
+        }
+    }
+
+    /**
+     * Evicts the user now and again after the current transaction commits, so a concurrent
+     * lookup cannot re-cache the state being replaced.
+     */
+    public void evictUser(Long id, String username) {
+        evictNow(id, username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id, username);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        synchronized (entries) {
+            evictions.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts since startup plus the current size.
+     */
+    public Map<String, Long> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("size", (long) size());
+        statistics.put("maxSize", (long) maxSize);
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("evictions", evictions.sum());
+        statistics.put("hitRatioPercent", hitCount + missCount == 0 ? 0 : hitCount * 100 / (hitCount + missCount));
+        return statistics;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // The username may have changed, so entries are matched by id as well
+    private void evictNow(Long id, String username) {
+        synchronized (entries) {
+            if (username != null && entries.remove(username) != null) {
+                evictions.increment();
+            }
+            if (id == null) {
+                return;
+            }
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (id.equals(it.next().user.getId())) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+}
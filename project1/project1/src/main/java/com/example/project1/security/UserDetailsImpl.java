@@ -23,6 +23,9 @@ public class UserDetailsImpl implements UserDetails {
     @JsonIgnore
     private String password;
 
+    private int tokenVersion;
+    private boolean enabled = true;
+
     private Collection<? extends GrantedAuthority> authorities;
 
     public UserDetailsImpl(Long id, String username, String firstName, String lastName, String email, String password,
@@ -36,6 +39,13 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    public UserDetailsImpl(Long id, String username, String firstName, String lastName, String email, String password,
+            Collection<? extends GrantedAuthority> authorities, int tokenVersion, boolean enabled) {
+        this(id, username, firstName, lastName, email, password, authorities);
+        this.tokenVersion = tokenVersion;
+        this.enabled = enabled;
+    }
+
     public static UserDetailsImpl build(User user) {
         List<GrantedAuthority> authorities = user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.getName().name()))
@@ -48,7 +58,21 @@ public class UserDetailsImpl implements UserDetails {
                 user.getLastName(),
                 user.getEmail(),
                 user.getPassword(), 
-                authorities);
+                authorities,
+                user.getTokenVersion(),
+                user.isEnabled());
+    }
+
+    /**
+     * Builds the principal from verified JWT claims. Profile fields and the password are not
+     * carried in the token and stay null.
+     */
+    public static UserDetailsImpl fromToken(Long id, String username, List<String> roles, int tokenVersion) {
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(id, username, null, null, null, null, authorities, tokenVersion, true);
     }
 
     @Override
@@ -60,6 +84,10 @@ public class UserDetailsImpl implements UserDetails {
         return id;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -99,6 +127,6 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 }
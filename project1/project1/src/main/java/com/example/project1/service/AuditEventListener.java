@@ -0,0 +1,227 @@
+package com.example.project1.service;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.EntityRevision;
+import com.example.project1.model.MyEntity;
+import com.example.project1.model.User;
+import com.example.project1.security.UserDetailsImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Hibernate post-insert/update/delete listener that records {@link MyEntity} changes for the audit trail.
+ * The before and after states are serialized during the flush, while the custom column snapshot
+ * still holds the rows in the database, and handed to {@link AuditTrailWriter} only once the
+ * transaction has committed. A collection that was never loaded is left out of the state,
+ * since it cannot have changed.
+ */
+@Component
+public class AuditEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditEventListener.class);
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    private final transient AuditTrailWriter writer;
+
+    private final transient ObjectMapper objectMapper;
+
+    @Autowired
+    public AuditEventListener(EntityManagerFactory entityManagerFactory, AuditTrailWriter writer,
+                              ObjectMapper objectMapper) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof MyEntity) {
+            record(event.getSession(), event.getPersister(), event.getId(), EntityRevision.RevisionType.CREATE,
+                    null, toState(event.getPersister(), event.getState(), false), "Created");
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof MyEntity)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        String[] names = persister.getPropertyNames();
+        List<String> changed = new ArrayList<>();
+        if (event.getDirtyProperties() != null) {
+            for (int index : event.getDirtyProperties()) {
+                changed.add(names[index]);
+            }
+        }
+        Object[] state = event.getState();
+        for (int i = 0; i < state.length; i++) {
+            if (state[i] instanceof PersistentCollection && ((PersistentCollection) state[i]).isDirty()
+                    && !changed.contains(names[i])) {
+                changed.add(names[i]);
+            }
+        }
+
+        String previous = event.getOldState() != null ? toState(persister, event.getOldState(), true) : null;
+        record(event.getSession(), persister, event.getId(), EntityRevision.RevisionType.UPDATE,
+                previous, toState(persister, state, false),
+                changed.isEmpty() ? "Updated" : "Updated " + String.join(", ", changed));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof MyEntity) {
+            record(event.getSession(), event.getPersister(), event.getId(), EntityRevision.RevisionType.DELETE,
+                    toState(event.getPersister(), event.getDeletedState(), true), null, "Deleted");
+        }
+    }
+
+    /**
+     * Records deletions made by a bulk statement, for which Hibernate raises no events.
+     * No state is captured: the revision history already holds the last state of each entity.
+     */
+    public void recordBulkDelete(EntityManager entityManager, Collection<Long> ids) {
+        Long userId = currentUserId();
+        List<AuditTrailWriter.AuditRecord> records = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            records.add(new AuditTrailWriter.AuditRecord(MyEntity.class.getSimpleName(), id, userId,
+                    EntityRevision.RevisionType.DELETE, null, null, "Deleted"));
+        }
+        entityManager.unwrap(SessionImplementor.class).getActionQueue()
+                .registerProcess((AfterTransactionCompletionProcess) (success, completedSession) -> {
+                    if (success) {
+                        records.forEach(writer::submit);
+                    }
+                });
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(SharedSessionContractImplementor session, EntityPersister persister, Object id,
+                        EntityRevision.RevisionType type, String previousState, String newState, String description) {
+        AuditTrailWriter.AuditRecord record = new AuditTrailWriter.AuditRecord(
+                persister.getMappedClass().getSimpleName(), (Long) id, currentUserId(), type,
+                previousState, newState,
+                description.length() > MAX_DESCRIPTION_LENGTH ? description.substring(0, MAX_DESCRIPTION_LENGTH) : description);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completedSession) -> {
+            if (success) {
+                writer.submit(record);
+            }
+        });
+    }
+
+    /**
+     * Serializes a Hibernate state array to JSON. For the previous state, dirty collections
+     * contribute their stored snapshot, which is what the database held before this flush.
+     */
+    private String toState(EntityPersister persister, Object[] values, boolean previous) {
+        String[] names = persister.getPropertyNames();
+        Map<String, Object> state = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            Object value = values[i];
+            if (value instanceof PersistentCollection) {
+                PersistentCollection collection = (PersistentCollection) value;
+                if (!collection.wasInitialized()) {
+                    continue;
+                }
+                if (previous && collection.getStoredSnapshot() instanceof Collection) {
+                    value = collection.getStoredSnapshot();
+                }
+            }
+            state.put(names[i], toValue(value));
+        }
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            // Never fail the user's write because of the audit trail
+            logger.warn("Could not serialize audit state of {}", persister.getEntityName(), e);
+            return null;
+        }
+    }
+
+    private static Object toValue(Object value) {
+        if (value instanceof User) {
+            return ((User) value).getId();
+        }
+        if (value instanceof Temporal || value instanceof Enum) {
+            return value.toString();
+        }
+        if (value instanceof Collection) {
+            List<Object> items = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                items.add(item instanceof CustomColumn ? toColumn((CustomColumn) item) : toValue(item));
+            }
+            return items;
+        }
+        return value;
+    }
+
+    private static Map<String, Object> toColumn(CustomColumn column) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", column.getName());
+        values.put("value", column.getValue());
+        values.put("columnType", column.getColumnType() != null ? column.getColumnType().name() : null);
+        values.put("required", column.isRequired());
+        values.put("validationPattern", column.getValidationPattern());
+        values.put("validationErrorMessage", column.getValidationErrorMessage());
+        values.put("options", column.getOptions());
+        return values;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,611 @@
+package com.example.project1.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.project1.model.EntityRevision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the audit trail off the request path.
+ * Committed changes are queued by {@link AuditEventListener}; a single background thread drains
+ * the queue and hands whatever has accumulated to {@link EntityRevisionService} as one
+ * JDBC-batched transaction, so the batch grows with the write rate. Being the only writer
+ * also keeps the per-entity revision numbers gapless. When the queue is full the records are
+ * appended to a local spill file (or dropped, with app.audit.overflow=DROP), as are batches the
+ * database refuses; spilled records are replayed once the queue has gone idle, and at startup.
+ * Revisions are numbered in the order records are written, so from the first spill until the
+ * spilled records have been replayed every newer record is spilled behind them, whatever the
+ * overflow policy, and the queue is emptied into the spill file ahead of them. Each replay pass
+ * ends by moving what was spilled during it back into the queue, if it is small enough, which
+ * ends the backlog; otherwise the next pass replays it. A backlog that outlasts many passes means
+ * the database cannot keep up with the write rate and is reported by the statistics.
+ * Replay records its progress after every committed batch and backs off between failed
+ * attempts; records that cannot be read, or that keep failing for reasons a retry cannot fix,
+ * are moved to a dead-letter file. Delivery is at least once.
+ */
+@Component
+public class AuditTrailWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditTrailWriter.class);
+
+    private static final String SPILL_FILE = "audit-spill.jsonl";
+    private static final String REPLAY_SUFFIX = ".replay";
+    private static final String PROGRESS_SUFFIX = ".progress";
+    private static final String DEAD_LETTER_FILE = "audit-dead-letter.jsonl";
+
+    // Enum for what happens to records that do not fit in the queue
+    public enum OverflowPolicy {
+        SPILL,
+        DROP
+    }
+
+    @Value("${app.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.poll-interval-ms:200}")
+    private long pollIntervalMs;
+
+    @Value("${app.audit.overflow:SPILL}")
+    private OverflowPolicy overflow;
+
+    @Value("${app.audit.spill-directory:./audit}")
+    private String spillDirectory;
+
+    @Value("${app.audit.replay.max-attempts:5}")
+    private int replayMaxAttempts;
+
+    @Value("${app.audit.replay.backoff-ms:1000}")
+    private long replayBackoffMs;
+
+    @Value("${app.audit.replay.max-backoff-ms:300000}")
+    private long replayMaxBackoffMs;
+
+    @Value("${app.audit.replay.catch-up-bytes:1048576}")
+    private long replayCatchUpBytes;
+
+    private final EntityRevisionService revisionService;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder backlogPasses = new LongAdder();
+
+    private BlockingQueue<AuditRecord> queue;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    // Set whenever something is spilled, so the idle writer only lists the directory when needed
+    private volatile boolean spillPending = true;
+
+    // While spilled records wait for replay, newer records are spilled too so they stay in commit order
+    private volatile boolean spillBacklog;
+
+    private Path spillLocation;
+
+    private final Object spillLock = new Object();
+
+    // Guarded by spillLock
+    private FileChannel spillChannel;
+
+    // Failed replay attempts in a row and when the next may start; only the writer thread touches these
+    private int replayFailures;
+    private long nextReplayAt;
+
+    @Autowired
+    public AuditTrailWriter(EntityRevisionService revisionService, ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.revisionService = revisionService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * A spilled record together with its line, for progress tracking and dead-lettering.
+     */
+    private static class SpilledLine {
+        private final long number;
+        private final String text;
+        private final AuditRecord record;
+
+        SpilledLine(long number, String text, AuditRecord record) {
+            this.number = number;
+            this.text = text;
+            this.record = record;
+        }
+    }
+
+    /**
+     * A committed change, as queued and as spilled (one JSON object per line).
+     */
+    public static class AuditRecord {
+        private String entityType;
+        private Long entityId;
+        private Long userId;
+        private LocalDateTime timestamp;
+        private EntityRevision.RevisionType revisionType;
+        private String previousState;
+        private String newState;
+        private String changeDescription;
+
+        public AuditRecord() {}
+
+        public AuditRecord(String entityType, Long entityId, Long userId, EntityRevision.RevisionType revisionType,
+                           String previousState, String newState, String changeDescription) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.userId = userId;
+            this.timestamp = LocalDateTime.now();
+            this.revisionType = revisionType;
+            this.previousState = previousState;
+            this.newState = newState;
+            this.changeDescription = changeDescription;
+        }
+
+        public String getEntityType() { return entityType; }
+        public void setEntityType(String entityType) { this.entityType = entityType; }
+        public Long getEntityId() { return entityId; }
+        public void setEntityId(Long entityId) { this.entityId = entityId; }
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+        public EntityRevision.RevisionType getRevisionType() { return revisionType; }
+        public void setRevisionType(EntityRevision.RevisionType revisionType) { this.revisionType = revisionType; }
+        public String getPreviousState() { return previousState; }
+        public void setPreviousState(String previousState) { this.previousState = previousState; }
+        public String getNewState() { return newState; }
+        public void setNewState(String newState) { this.newState = newState; }
+        public String getChangeDescription() { return changeDescription; }
+        public void setChangeDescription(String changeDescription) { this.changeDescription = changeDescription; }
+    }
+
+    @PostConstruct
+    void startWriter() throws IOException {
+        spillLocation = Paths.get(spillDirectory).toAbsolutePath().normalize();
+        Files.createDirectories(spillLocation);
+        try (DirectoryStream<Path> pending = Files.newDirectoryStream(spillLocation, "*" + REPLAY_SUFFIX)) {
+            spillBacklog = Files.exists(spillLocation.resolve(SPILL_FILE)) || pending.iterator().hasNext();
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Lets the writer empty the queue, then spills whatever it could not write in time.
+     */
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        List<AuditRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+        synchronized (spillLock) {
+            closeSpillChannel();
+        }
+    }
+
+    /**
+     * Queues a committed change without blocking; called on the committing thread.
+     */
+    public void submit(AuditRecord record) {
+        enqueued.increment();
+        if (!spillBacklog && queue.offer(record)) {
+            return;
+        }
+        synchronized (spillLock) {
+            // The backlog may have been replayed in the meantime
+            if (!spillBacklog && queue.offer(record)) {
+                return;
+            }
+            if (spillBacklog || overflow == OverflowPolicy.SPILL) {
+                spill(List.of(record));
+                return;
+            }
+        }
+        dropped.increment();
+    }
+
+    /**
+     * Queue depth and outcome counts since startup.
+     */
+    public Map<String, Long> getStatistics() {
+        long batchCount = batches.sum();
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("queueDepth", (long) queue.size());
+        statistics.put("queueCapacity", (long) queueCapacity);
+        statistics.put("enqueued", enqueued.sum());
+        statistics.put("written", written.sum());
+        statistics.put("batches", batchCount);
+        statistics.put("averageBatchSize", batchCount == 0 ? 0 : written.sum() / batchCount);
+        statistics.put("failedBatches", failedBatches.sum());
+        statistics.put("spilled", spilled.sum());
+        statistics.put("replayed", replayed.sum());
+        statistics.put("dropped", dropped.sum());
+        statistics.put("deadLettered", deadLettered.sum());
+        statistics.put("spillBacklog", spillBacklog ? 1L : 0L);
+        // Replay passes that ended with the backlog still open; a steadily growing value needs attention
+        statistics.put("backlogPasses", backlogPasses.sum());
+        return statistics;
+    }
+
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (spillPending && running && System.currentTimeMillis() >= nextReplayAt) {
+                        replaySpilled();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (spillBacklog) {
+                    // Offered just as the backlog started; still newer than what was spilled
+                    spill(batch);
+                } else {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Audit writer error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditRecord> batch) {
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            logger.error("Could not write {} audit records; spilling them for a later retry", batch.size(), e);
+            setAside(batch);
+        }
+    }
+
+    private void insert(List<AuditRecord> records) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> revisionService.append(records));
+        } catch (RuntimeException e) {
+            // The cached latest states include the rolled-back revisions
+            revisionService.evictLatestStates();
+            throw e;
+        }
+        written.add(records.size());
+        batches.increment();
+    }
+
+    private void spill(List<AuditRecord> records) {
+        synchronized (spillLock) {
+            startBacklog();
+            try {
+                if (spillChannel == null) {
+                    spillChannel = FileChannel.open(spillLocation.resolve(SPILL_FILE),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(toLines(records));
+                while (buffer.hasRemaining()) {
+                    spillChannel.write(buffer);
+                }
+                spilled.add(records.size());
+                spillPending = true;
+            } catch (IOException e) {
+                dropped.add(records.size());
+                logger.error("Could not spill {} audit records; they are lost", records.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Sets aside a batch the database refused. It was taken from the queue before anything now in
+     * the spill file, so it goes to its own file that is replayed first.
+     */
+    private void setAside(List<AuditRecord> batch) {
+        synchronized (spillLock) {
+            startBacklog();
+            // Sorts before the spill file rotated next, even within the same millisecond ('-' < '.')
+            Path file = spillLocation.resolve("audit-spill-" + System.currentTimeMillis() + "-0" + REPLAY_SUFFIX);
+            try {
+                Files.write(file, toLines(batch),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                spilled.add(batch.size());
+                spillPending = true;
+            } catch (IOException e) {
+                dropped.add(batch.size());
+                logger.error("Could not spill {} audit records; they are lost", batch.size(), e);
+            }
+        }
+    }
+
+    // Guarded by spillLock. Queued records are older than whatever is spilled next, so they go first
+    private void startBacklog() {
+        if (spillBacklog) {
+            return;
+        }
+        spillBacklog = true;
+        List<AuditRecord> queued = new ArrayList<>();
+        queue.drainTo(queued);
+        if (!queued.isEmpty()) {
+            spill(queued);
+        }
+    }
+
+    private byte[] toLines(List<AuditRecord> records) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (AuditRecord record : records) {
+            lines.append(objectMapper.writeValueAsString(record)).append('\n');
+        }
+        return lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves the current spill file aside and writes every set-aside file to the database, oldest
+     * first. A file is deleted once all its records are written; on failure the replay is retried
+     * after an exponentially growing delay.
+     */
+    private void replaySpilled() {
+        synchronized (spillLock) {
+            spillPending = false;
+            try {
+                closeSpillChannel();
+                Path current = spillLocation.resolve(SPILL_FILE);
+                if (Files.exists(current)) {
+                    Files.move(current, spillLocation.resolve("audit-spill-" + System.currentTimeMillis() + REPLAY_SUFFIX));
+                }
+            } catch (IOException e) {
+                spillPending = true;
+                logger.warn("Could not rotate the audit spill file", e);
+                return;
+            }
+        }
+
+        try {
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(spillLocation, "*" + REPLAY_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+            // Named after the time they were set aside
+            Collections.sort(files);
+            for (Path file : files) {
+                replay(file);
+            }
+            replayFailures = 0;
+            nextReplayAt = 0;
+            synchronized (spillLock) {
+                if (spillBacklog && !endBacklog()) {
+                    backlogPasses.increment();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            spillPending = true;
+            replayFailures++;
+            long backoff = Math.min(replayMaxBackoffMs, replayBackoffMs << Math.min(replayFailures - 1, 20));
+            nextReplayAt = System.currentTimeMillis() + backoff;
+            logger.warn("Could not replay spilled audit records (attempt {}); retrying in {} ms",
+                    replayFailures, backoff, e);
+        }
+    }
+
+    /**
+     * Guarded by spillLock, so nothing is spilled or queued meanwhile. Moves the records spilled
+     * since the last rotation into the queue, which is empty during a backlog, so they are
+     * written next and in order, and lets records be queued again.
+     * @return false if the spill file is too large for this; the next replay pass handles it
+     */
+    private boolean endBacklog() throws IOException {
+        Path current = spillLocation.resolve(SPILL_FILE);
+        List<AuditRecord> pending = new ArrayList<>();
+        List<String> unreadable = new ArrayList<>();
+        if (Files.exists(current)) {
+            if (Files.size(current) > replayCatchUpBytes) {
+                return false;
+            }
+            closeSpillChannel();
+            for (String line : Files.readAllLines(current, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    pending.add(objectMapper.readValue(line, AuditRecord.class));
+                } catch (IOException e) {
+                    unreadable.add(line);
+                }
+            }
+            if (pending.size() > queue.remainingCapacity()) {
+                return false;
+            }
+            for (String line : unreadable) {
+                deadLetter(line, new IOException("Unreadable spilled audit record"));
+            }
+            queue.addAll(pending);
+            Files.delete(current);
+        }
+        spillBacklog = false;
+        if (!pending.isEmpty()) {
+            logger.info("Audit spill backlog caught up; {} records moved back to the queue", pending.size());
+        }
+        return true;
+    }
+
+    /**
+     * Writes one set-aside file in batches. After each committed batch the number of lines done
+     * is stored next to the file, so a retry resumes there instead of writing earlier batches again.
+     */
+    private void replay(Path file) throws IOException {
+        Path progressFile = file.resolveSibling(file.getFileName() + PROGRESS_SUFFIX);
+        long done = readProgress(progressFile);
+        List<SpilledLine> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= done || line.isBlank()) {
+                    continue;
+                }
+                AuditRecord record;
+                try {
+                    record = objectMapper.readValue(line, AuditRecord.class);
+                } catch (IOException e) {
+                    // E.g. a line cut short by a crash while spilling
+                    deadLetter(line, e);
+                    if (batch.isEmpty()) {
+                        writeProgress(progressFile, lineNumber);
+                    }
+                    continue;
+                }
+                batch.add(new SpilledLine(lineNumber, line, record));
+                if (batch.size() == batchSize) {
+                    count += replayBatch(batch, progressFile);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            count += replayBatch(batch, progressFile);
+        }
+        Files.delete(file);
+        Files.deleteIfExists(progressFile);
+        replayed.add(count);
+        logger.info("Replayed {} spilled audit records from {}", count, file.getFileName());
+    }
+
+    /**
+     * Writes a batch and records the progress. Once the batch has failed max-attempts times in a
+     * row, its records are written one by one and those that fail for a reason retrying cannot
+     * fix are dead-lettered; any other failure still aborts the replay.
+     * @return the number of records written
+     */
+    private long replayBatch(List<SpilledLine> batch, Path progressFile) throws IOException {
+        List<AuditRecord> records = new ArrayList<>(batch.size());
+        batch.forEach(line -> records.add(line.record));
+        try {
+            insert(records);
+            writeProgress(progressFile, batch.get(batch.size() - 1).number);
+            return records.size();
+        } catch (RuntimeException e) {
+            if (replayFailures + 1 < replayMaxAttempts) {
+                throw e;
+            }
+            logger.warn("Spilled audit batch failed {} times; writing its records one by one", replayMaxAttempts, e);
+        }
+
+        long count = 0;
+        for (SpilledLine line : batch) {
+            try {
+                insert(List.of(line.record));
+                count++;
+            } catch (RuntimeException e) {
+                if (!isPermanent(e)) {
+                    throw e;
+                }
+                deadLetter(line.text, e);
+            }
+            writeProgress(progressFile, line.number);
+        }
+        return count;
+    }
+
+    // Failures caused by the record itself, as opposed to the database being unavailable
+    private static boolean isPermanent(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException || e instanceof ObjectRetrievalFailureException
+                || e instanceof IllegalArgumentException || e instanceof IllegalStateException;
+    }
+
+    private void deadLetter(String line, Exception cause) throws IOException {
+        Files.write(spillLocation.resolve(DEAD_LETTER_FILE), (line + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        deadLettered.increment();
+        logger.error("Moved an audit record to {}: {}", DEAD_LETTER_FILE, cause.toString());
+    }
+
+    private static long readProgress(Path progressFile) throws IOException {
+        if (!Files.exists(progressFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(progressFile).trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring unreadable replay progress {}", progressFile.getFileName());
+            return 0;
+        }
+    }
+
+    private static void writeProgress(Path progressFile, long lines) throws IOException {
+        Path temp = progressFile.resolveSibling(progressFile.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(lines));
+        Files.move(temp, progressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void closeSpillChannel() {
+        if (spillChannel == null) {
+            return;
+        }
+        try {
+            spillChannel.force(false);
+            spillChannel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the audit spill file", e);
+        }
+        spillChannel = null;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.project1.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+/**
+ * Bulk ingest of CSV and Excel uploads.
+ * Rows are parsed as a stream and written in chunks, each chunk in its own transaction.
+ * Together with sequence-generated ids and hibernate.jdbc.batch_size this lets Hibernate
+ * send inserts (including custom column rows) as JDBC batches, and clearing the
+ * persistence context after every chunk keeps memory flat.
+ * Rows that fail bean validation are skipped and reported instead of failing the chunk.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    @Value("${app.import.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final XlsxStreamingReader xlsxReader;
+
+    private final EntityRepository entityRepository;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BulkImportService(XlsxStreamingReader xlsxReader, EntityRepository entityRepository, Validator validator,
+                             PlatformTransactionManager transactionManager) {
+        this.xlsxReader = xlsxReader;
+        this.entityRepository = entityRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Receives progress callbacks while an import runs. Row numbers are 1-based data rows.
+     */
+    public interface ProgressListener {
+        ProgressListener NONE = new ProgressListener() {};
+
+        default void rowParsed(long rowNumber) {}
+
+        default void rowRejected(long rowNumber, String reason) {}
+
+        default void chunkWritten(int rows) {}
+    }
+
+    /**
+     * Imports a CSV stream whose first line is the header.
+     * @return the number of imported entities
+     */
+    public int importCsv(InputStream in) throws IOException {
+        return importCsv(in, ProgressListener.NONE);
+    }
+
+    public int importCsv(InputStream in, ProgressListener listener) throws IOException {
+        ChunkWriter writer = new ChunkWriter(listener);
+        try (CSVReader reader = new CSVReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] headers = reader.readNext();
+            if (headers == null) {
+                throw new IOException("CSV file is empty or contains no header");
+            }
+            writer.header(Arrays.asList(headers));
+
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                writer.row(Arrays.asList(line));
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Failed to import CSV data: " + e.getMessage(), e);
+        }
+        writer.flush();
+        return writer.written;
+    }
+
+    /**
+     * Imports an .xlsx stream whose first sheet row is the header.
+     * @return the number of imported entities
+     */
+    public int importExcel(InputStream in) throws IOException {
+        ChunkWriter writer = new ChunkWriter(ProgressListener.NONE);
+        xlsxReader.read(in, writer::sheetRow);
+        writer.flush();
+        return writer.written;
+    }
+
+    public int importExcel(Path workbook, ProgressListener listener) throws IOException {
+        ChunkWriter writer = new ChunkWriter(listener);
+        xlsxReader.read(workbook, writer::sheetRow);
+        writer.flush();
+        return writer.written;
+    }
+
+    /**
+     * Persists one chunk in its own transaction, then detaches everything.
+     */
+    void writeChunk(List<MyEntity> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Imported rows bypass the second-level cache so an import does not push out the hot entries
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            // Rows with an id overwrite the stored entity whatever its version
+            entityRepository.adoptCurrentVersions(chunk);
+            for (MyEntity entity : chunk) {
+                if (entity.getId() == null) {
+                    entityManager.persist(entity);
+                } else {
+                    entityManager.merge(entity);
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    /**
+     * Maps, validates and buffers parsed rows, writing them once a chunk is full.
+     */
+    private class ChunkWriter {
+        private final ProgressListener listener;
+        private final List<MyEntity> chunk = new ArrayList<>();
+        private List<String> columnNames;
+        private long rowNumber;
+        private int written;
+
+        ChunkWriter(ProgressListener listener) {
+            this.listener = listener;
+        }
+
+        void header(List<String> columnNames) {
+            this.columnNames = columnNames;
+        }
+
+        void sheetRow(int sheetRowNum, List<String> cells) {
+            if (columnNames == null) {
+                header(cells);
+            } else {
+                row(cells);
+            }
+        }
+
+        void row(List<String> values) {
+            rowNumber++;
+            listener.rowParsed(rowNumber);
+
+            MyEntity entity = EntityRowMapper.toEntity(columnNames, values);
+            Set<ConstraintViolation<MyEntity>> violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                listener.rowRejected(rowNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+
+            chunk.add(entity);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            writeChunk(chunk);
+            written += chunk.size();
+            listener.chunkWritten(chunk.size());
+            logger.debug("Bulk import committed {} rows ({} total)", chunk.size(), written);
+            chunk.clear();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.project1.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.example.project1.dto.BulkUploadResponse;
+import com.example.project1.model.StoredFile;
+
+/**
+ * Streaming multi-file upload.
+ * Parts are read from the request body in the order they arrive and spooled straight to the
+ * storage volume (hashing on the way), without the servlet multipart parser buffering the
+ * whole request first. Storing each spooled part (dedup check, move into the sharded layout,
+ * index row) runs on a bounded I/O pool while the next part is still being received; when the
+ * pool is saturated the request thread stores the part itself, which throttles the upload.
+ */
+@Service
+public class BulkUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUploadService.class);
+
+    @Value("${app.upload.stream.io-threads:4}")
+    private int ioThreads;
+
+    @Value("${app.upload.stream.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.upload.stream.max-file-size:1073741824}")
+    private long maxFileSize;
+
+    @Value("${app.upload.stream.max-request-size:10737418240}")
+    private long maxRequestSize;
+
+    private final FileStorageService fileStorageService;
+
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    public BulkUploadService(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(ioThreads, ioThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-io-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        executor.shutdown();
+    }
+
+    public static boolean isMultipart(HttpServletRequest request) {
+        return ServletFileUpload.isMultipartContent(request);
+    }
+
+    /**
+     * Stores every file part of a multipart/form-data request.
+     * A part that cannot be read (e.g. over the size limit) ends the upload, since the rest of
+     * the body can no longer be parsed; the files before it are kept.
+     * @return one result per file part, in request order
+     */
+    public List<BulkUploadResponse> upload(HttpServletRequest request, String owner) {
+        ServletFileUpload upload = new ServletFileUpload();
+        upload.setFileSizeMax(maxFileSize);
+        upload.setSizeMax(maxRequestSize);
+
+        List<CompletableFuture<BulkUploadResponse>> results = new ArrayList<>();
+        String currentName = null;
+        try {
+            FileItemIterator items = upload.getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                // Unread form fields are skipped by the iterator
+                if (item.isFormField() || !StringUtils.hasText(item.getName())) {
+                    continue;
+                }
+                String originalName = item.getName();
+                String contentType = item.getContentType();
+                currentName = originalName;
+
+                FileStorageService.SpooledUpload spooled;
+                try (InputStream in = item.openStream()) {
+                    spooled = fileStorageService.spool(in);
+                }
+                currentName = null;
+
+                results.add(CompletableFuture.supplyAsync(() -> store(spooled, originalName, contentType, owner), executor));
+            }
+        } catch (FileUploadException | IOException e) {
+            logger.warn("Streaming upload stopped: {}", e.getMessage());
+            results.add(CompletableFuture.completedFuture(BulkUploadResponse.failed(currentName, failureMessage(e))));
+        }
+
+        List<BulkUploadResponse> responses = new ArrayList<>();
+        for (CompletableFuture<BulkUploadResponse> result : results) {
+            responses.add(result.join());
+        }
+        return responses;
+    }
+
+    private BulkUploadResponse store(FileStorageService.SpooledUpload spooled, String originalName,
+                                     String contentType, String owner) {
+        try {
+            StoredFile stored = fileStorageService.commit(spooled, originalName, contentType, owner);
+            return BulkUploadResponse.stored(originalName, stored.getFileName(), stored.getContentType(),
+                    stored.getSize(), stored.getChecksum());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not store uploaded file {}", originalName, e);
+            return BulkUploadResponse.failed(originalName, "Could not store file: " + e.getMessage());
+        }
+    }
+
+    private static String failureMessage(Exception e) {
+        Throwable cause = e instanceof FileUploadBase.FileUploadIOException ? e.getCause() : e;
+        if (cause instanceof FileUploadBase.FileSizeLimitExceededException) {
+            return "File exceeds the maximum size of " + ((FileUploadBase.FileSizeLimitExceededException) cause).getPermittedSize() + " bytes";
+        }
+        if (cause instanceof FileUploadBase.SizeLimitExceededException) {
+            return "Upload exceeds the maximum request size of " + ((FileUploadBase.SizeLimitExceededException) cause).getPermittedSize() + " bytes";
+        }
+        return "Upload could not be read: " + cause.getMessage();
+    }
+}
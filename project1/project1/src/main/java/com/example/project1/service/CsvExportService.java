@@ -11,10 +11,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -28,63 +28,56 @@ public class CsvExportService {
 
     private final EntityRepository entityRepository;
 
+    private final EntityExportReader exportReader;
+
     @Autowired
-    public CsvExportService(EntityRepository entityRepository) {
+    public CsvExportService(EntityRepository entityRepository, EntityExportReader exportReader) {
         this.entityRepository = entityRepository;
+        this.exportReader = exportReader;
     }
 
     private static final String[] HEADERS = { "ID", "Name", "Description" };
 
     /**
-     * Export entities to CSV format
+     * Export entities to CSV format, streaming rows straight to the given output.
+     * Rows are flushed to the output chunk by chunk, so heap usage does not grow with the table.
      */
-    public ByteArrayInputStream exportToCsv() {
-        List<MyEntity> entities = entityRepository.findAll();
-        List<String> customColumnNames = new ArrayList<>();
-        
-        // Collect all unique custom column names
-        for (MyEntity entity : entities) {
-            for (CustomColumn col : entity.getCustomColumns()) {
-                if (!customColumnNames.contains(col.getName())) {
-                    customColumnNames.add(col.getName());
-                }
+    public void exportToCsv(OutputStream out) throws IOException {
+        CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+
+        exportReader.read(new EntityExportReader.Handler() {
+            private List<String> customColumnNames;
+
+            @Override
+            public void header(List<String> customColumnNames) {
+                this.customColumnNames = customColumnNames;
+
+                // Create headers
+                List<String> headerList = new ArrayList<>(Arrays.asList(HEADERS));
+                headerList.addAll(customColumnNames);
+                csvWriter.writeNext(headerList.toArray(new String[0]));
             }
-        }
-        
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             CSVWriter csvWriter = new CSVWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
-            
-            // Create headers
-            List<String> headerList = new ArrayList<>(Arrays.asList(HEADERS));
-            headerList.addAll(customColumnNames);
-            String[] headers = headerList.toArray(new String[0]);
-            csvWriter.writeNext(headers);
-            
-            // Write data rows
-            for (MyEntity entity : entities) {
-                List<String> rowData = new ArrayList<>();
-                rowData.add(entity.getId().toString());
-                rowData.add(entity.getName());
-                rowData.add(entity.getDescription() != null ? entity.getDescription() : "");
-                
-                // Add custom column values
-                for (String colName : customColumnNames) {
-                    String value = entity.getCustomColumns().stream()
-                            .filter(c -> colName.equals(c.getName()))
-                            .findFirst()
-                            .map(CustomColumn::getValue)
-                            .orElse("");
-                    rowData.add(value);
+
+            @Override
+            public void rows(List<EntityExportReader.ExportRow> rows) throws IOException {
+                for (EntityExportReader.ExportRow row : rows) {
+                    List<String> rowData = new ArrayList<>();
+                    rowData.add(row.getId().toString());
+                    rowData.add(row.getName());
+                    rowData.add(row.getDescription() != null ? row.getDescription() : "");
+
+                    // Add custom column values
+                    for (String colName : customColumnNames) {
+                        rowData.add(row.getCustomValue(colName));
+                    }
+
+                    csvWriter.writeNext(rowData.toArray(new String[0]));
                 }
-                
-                csvWriter.writeNext(rowData.toArray(new String[0]));
+                csvWriter.flush();
             }
-            
-            csvWriter.flush();
-            return new ByteArrayInputStream(out.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to export data to CSV file: " + e.getMessage());
-        }
+        });
+
+        csvWriter.flush();
     }
     
     /**
@@ -142,6 +135,7 @@ public class CsvExportService {
             }
             
             // Save all entities
+            entityRepository.adoptCurrentVersions(entities);
             return entityRepository.saveAll(entities);
         } catch (IOException | CsvValidationException e) {
             throw new RuntimeException("Failed to import CSV data: " + e.getMessage());
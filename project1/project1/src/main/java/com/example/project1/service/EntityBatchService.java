@@ -0,0 +1,292 @@
+package com.example.project1.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.project1.dto.EntityBatchOperation;
+import com.example.project1.dto.EntityBatchResult;
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+
+/**
+ * Bulk create/update/delete for sync clients.
+ * Operations are validated up front and then written in chunks, each chunk in its own
+ * transaction: updates load their entities with one query, creates and updates go out as
+ * JDBC batches on flush, and deletes are two set-based statements (custom columns, then
+ * entities) instead of a load and delete per entity. Bulk statements raise no Hibernate
+ * events, so deletes report to the statistics counters and the audit trail themselves.
+ * A chunk that fails to commit rolls back as a whole; the other chunks are unaffected.
+ */
+@Service
+public class EntityBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityBatchService.class);
+
+    private static final String CUSTOM_COLUMNS_TABLE = "entity_custom_columns";
+
+    @Value("${app.entity-batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.entity-batch.max-operations:10000}")
+    private int maxOperations;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final EntityRepository entityRepository;
+
+    private final EntityStatisticsCounters statisticsCounters;
+
+    private final AuditEventListener auditEventListener;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public EntityBatchService(EntityRepository entityRepository, EntityStatisticsCounters statisticsCounters,
+                              AuditEventListener auditEventListener, Validator validator,
+                              PlatformTransactionManager transactionManager) {
+        this.entityRepository = entityRepository;
+        this.statisticsCounters = statisticsCounters;
+        this.auditEventListener = auditEventListener;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies the operations and returns one result per operation, in request order.
+     * @throws IllegalArgumentException if there are more than app.entity-batch.max-operations
+     */
+    public List<EntityBatchResult> execute(List<EntityBatchOperation> operations) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("At most " + maxOperations + " operations per request");
+        }
+        EntityBatchResult[] results = new EntityBatchResult[operations.size()];
+        MyEntity[] incoming = new MyEntity[operations.size()];
+        Set<Long> seenIds = new HashSet<>();
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+
+        for (int i = 0; i < operations.size(); i++) {
+            EntityBatchOperation operation = operations.get(i);
+            String error = check(operation, seenIds);
+            if (error == null && operation.getEntity() != null) {
+                incoming[i] = operation.getEntity().toEntity();
+                incoming[i].setId(null);
+                error = validate(incoming[i]);
+            }
+            if (error != null) {
+                results[i] = EntityBatchResult.failed(i, operation.getOp(), operation.getId(),
+                        HttpStatus.BAD_REQUEST.value(), error);
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                writeChunk(operations, incoming, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(operations, incoming, chunk, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private static String check(EntityBatchOperation operation, Set<Long> seenIds) {
+        if (operation.getOp() == null) {
+            return "op is required";
+        }
+        if (operation.getOp() == EntityBatchOperation.Type.CREATE) {
+            if (operation.getId() != null) {
+                return "CREATE must not carry an id";
+            }
+            return operation.getEntity() == null ? "entity is required" : null;
+        }
+        if (operation.getId() == null) {
+            return "id is required";
+        }
+        if (operation.getOp() == EntityBatchOperation.Type.UPDATE && operation.getEntity() == null) {
+            return "entity is required";
+        }
+        if (!seenIds.add(operation.getId())) {
+            return "Entity " + operation.getId() + " appears more than once";
+        }
+        return null;
+    }
+
+    private String validate(MyEntity entity) {
+        List<String> messages = new ArrayList<>();
+        for (ConstraintViolation<MyEntity> violation : validator.validate(entity)) {
+            messages.add(violation.getMessage());
+        }
+        for (CustomColumn column : entity.getCustomColumns()) {
+            for (ConstraintViolation<CustomColumn> violation : validator.validate(column)) {
+                messages.add(violation.getMessage());
+            }
+        }
+        return messages.isEmpty() ? null : messages.stream().sorted().collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Writes one chunk in its own transaction. If the commit fails, the operations that had
+     * been applied are reported as failed together.
+     */
+    private void writeChunk(List<EntityBatchOperation> operations, MyEntity[] incoming, List<Integer> chunk,
+                            EntityBatchResult[] results) {
+        Map<EntityBatchOperation.Type, List<Integer>> byType = chunk.stream()
+                .collect(Collectors.groupingBy(index -> operations.get(index).getOp()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Batch writes bypass the second-level cache, like imports; changed entries are still invalidated
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+                deleteAll(operations, byType.getOrDefault(EntityBatchOperation.Type.DELETE, List.of()), results);
+                Map<Integer, MyEntity> written = new HashMap<>();
+                updateAll(operations, incoming, byType.getOrDefault(EntityBatchOperation.Type.UPDATE, List.of()),
+                        written, results);
+                for (int index : byType.getOrDefault(EntityBatchOperation.Type.CREATE, List.of())) {
+                    entityManager.persist(incoming[index]);
+                    written.put(index, incoming[index]);
+                }
+
+                // Assigns the new versions before they are reported
+                entityManager.flush();
+                written.forEach((index, entity) -> {
+                    EntityBatchOperation.Type op = operations.get(index).getOp();
+                    results[index] = EntityBatchResult.applied(index, op, entity.getId(), entity.getVersion(),
+                            op == EntityBatchOperation.Type.CREATE ? HttpStatus.CREATED.value() : HttpStatus.OK.value());
+                });
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Batch chunk of {} operations rolled back", chunk.size(), e);
+            int status = e instanceof ObjectOptimisticLockingFailureException
+                    ? HttpStatus.CONFLICT.value()
+                    : HttpStatus.INTERNAL_SERVER_ERROR.value();
+            for (int index : chunk) {
+                EntityBatchResult result = results[index];
+                if (result == null || result.getStatus() < HttpStatus.BAD_REQUEST.value()) {
+                    results[index] = EntityBatchResult.failed(index, operations.get(index).getOp(),
+                            operations.get(index).getId(), status, "Rolled back with its chunk: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes with two set-based statements. The versions are checked when they are read, so a
+     * delete can still remove an entity that is updated between that read and the statement.
+     */
+    private void deleteAll(List<EntityBatchOperation> operations, List<Integer> indexes, EntityBatchResult[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<Long> ids = indexes.stream().map(index -> operations.get(index).getId()).collect(Collectors.toList());
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : entityRepository.findVersionsByIdIn(ids)) {
+            versions.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<Long> deletable = new ArrayList<>(ids.size());
+        for (int index : indexes) {
+            EntityBatchOperation operation = operations.get(index);
+            String error = checkVersion(operation, versions.get(operation.getId()));
+            if (error != null) {
+                results[index] = EntityBatchResult.failed(index, operation.getOp(), operation.getId(),
+                        versions.containsKey(operation.getId())
+                                ? HttpStatus.PRECONDITION_FAILED.value()
+                                : HttpStatus.NOT_FOUND.value(), error);
+                continue;
+            }
+            deletable.add(operation.getId());
+            results[index] = EntityBatchResult.applied(index, operation.getOp(), operation.getId(), null,
+                    HttpStatus.NO_CONTENT.value());
+        }
+        if (deletable.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<CustomColumn>> columns = new HashMap<>();
+        for (Object[] row : entityRepository.findColumnTypesByIdIn(deletable)) {
+            columns.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new CustomColumn(null, null, (CustomColumnType) row[1]));
+        }
+        for (Long id : deletable) {
+            statisticsCounters.entityRemoved(columns.getOrDefault(id, List.of()));
+        }
+        auditEventListener.recordBulkDelete(entityManager, deletable);
+
+        // The query space limits second-level cache invalidation to the custom column region
+        NativeQuery<?> deleteColumns = entityManager
+                .createNativeQuery("delete from " + CUSTOM_COLUMNS_TABLE + " where entity_id in (:ids)")
+                .unwrap(NativeQuery.class);
+        deleteColumns.addSynchronizedQuerySpace(CUSTOM_COLUMNS_TABLE);
+        deleteColumns.setParameter("ids", deletable).executeUpdate();
+        entityManager.createQuery("delete from MyEntity e where e.id in :ids")
+                .setParameter("ids", deletable)
+                .executeUpdate();
+    }
+
+    private void updateAll(List<EntityBatchOperation> operations, MyEntity[] incoming, List<Integer> indexes,
+                           Map<Integer, MyEntity> written, EntityBatchResult[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        List<Long> ids = indexes.stream().map(index -> operations.get(index).getId()).collect(Collectors.toList());
+        Map<Long, MyEntity> entities = entityRepository.findAllWithCustomColumnsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MyEntity::getId, Function.identity()));
+
+        for (int index : indexes) {
+            EntityBatchOperation operation = operations.get(index);
+            MyEntity entity = entities.get(operation.getId());
+            String error = checkVersion(operation, entity != null ? entity.getVersion() : null);
+            if (error != null) {
+                results[index] = EntityBatchResult.failed(index, operation.getOp(), operation.getId(),
+                        entity != null ? HttpStatus.PRECONDITION_FAILED.value() : HttpStatus.NOT_FOUND.value(), error);
+                continue;
+            }
+            // Copied onto the managed entity, so dirty checking writes only what changed
+            entity.setName(incoming[index].getName());
+            entity.setDescription(incoming[index].getDescription());
+            entity.setCustomColumns(incoming[index].getCustomColumns());
+            written.put(index, entity);
+        }
+    }
+
+    private static String checkVersion(EntityBatchOperation operation, Long currentVersion) {
+        if (currentVersion == null) {
+            return "Entity " + operation.getId() + " not found";
+        }
+        if (operation.getVersion() != null && !operation.getVersion().equals(currentVersion)) {
+            return "Entity " + operation.getId() + " has been modified; current version is " + currentVersion;
+        }
+        return null;
+    }
+}
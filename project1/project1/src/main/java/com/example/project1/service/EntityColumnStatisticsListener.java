@@ -0,0 +1,66 @@
+package com.example.project1.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreCollectionUpdateEvent;
+import org.hibernate.event.spi.PreCollectionUpdateEventListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.MyEntity;
+
+/**
+ * Hibernate pre-collection-update listener that reports custom column changes to
+ * {@link EntityStatisticsCounters}. It fires for every dirty custom column collection,
+ * whether or not the owning row itself is updated, which a JPA @PreUpdate callback does not.
+ * The stored snapshot still holds the rows in the database at this point.
+ */
+@Component
+public class EntityColumnStatisticsListener implements PreCollectionUpdateEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    private final transient EntityStatisticsCounters counters;
+
+    @Autowired
+    public EntityColumnStatisticsListener(EntityManagerFactory entityManagerFactory,
+                                          EntityStatisticsCounters counters) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.counters = counters;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.PRE_COLLECTION_UPDATE, this);
+    }
+
+    @Override
+    public void onPreUpdateCollection(PreCollectionUpdateEvent event) {
+        if (!(event.getAffectedOwnerOrNull() instanceof MyEntity)) {
+            return;
+        }
+        MyEntity entity = (MyEntity) event.getAffectedOwnerOrNull();
+        PersistentCollection columns = event.getCollection();
+        if (columns == entity.getCustomColumns() && columns.getStoredSnapshot() instanceof List) {
+            counters.columnsChanged(castColumns(columns.getStoredSnapshot()), entity.getCustomColumns());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<CustomColumn> castColumns(Object snapshot) {
+        return (Collection<CustomColumn>) snapshot;
+    }
+}
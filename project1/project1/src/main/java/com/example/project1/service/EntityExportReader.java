@@ -0,0 +1,134 @@
+package com.example.project1.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+
+/**
+ * Reads every entity for export in constant memory.
+ * Entities come from a read-only database cursor and are handed out in chunks together
+ * with their custom column values (one query per chunk). The persistence context is
+ * cleared after every chunk so nothing accumulates across the export.
+ */
+@Component
+public class EntityExportReader {
+
+    /** Rows handed to the handler at a time. */
+    public static final int CHUNK_SIZE = 500;
+
+    private final EntityRepository entityRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public EntityExportReader(EntityRepository entityRepository, PlatformTransactionManager transactionManager) {
+        this.entityRepository = entityRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Receives the export header once, then the rows chunk by chunk.
+     */
+    public interface Handler {
+        void header(List<String> customColumnNames) throws IOException;
+
+        void rows(List<ExportRow> rows) throws IOException;
+    }
+
+    /**
+     * A detached, flattened view of one entity.
+     */
+    public static class ExportRow {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Map<String, String> customValues;
+
+        public ExportRow(Long id, String name, String description, Map<String, String> customValues) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.customValues = customValues;
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getDescription() { return description; }
+
+        public String getCustomValue(String columnName) {
+            String value = customValues.get(columnName);
+            return value != null ? value : "";
+        }
+    }
+
+    /**
+     * Streams all entities through the handler inside a read-only transaction.
+     */
+    public void read(Handler handler) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    handler.header(entityRepository.findDistinctCustomColumnNames());
+
+                    try (Stream<MyEntity> entities = entityRepository.streamAllOrderedById()) {
+                        List<MyEntity> chunk = new ArrayList<>(CHUNK_SIZE);
+                        Iterator<MyEntity> iterator = entities.iterator();
+                        while (iterator.hasNext()) {
+                            chunk.add(iterator.next());
+                            if (chunk.size() == CHUNK_SIZE) {
+                                handler.rows(toRows(chunk));
+                                chunk.clear();
+                                entityManager.clear();
+                            }
+                        }
+                        if (!chunk.isEmpty()) {
+                            handler.rows(toRows(chunk));
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<ExportRow> toRows(List<MyEntity> chunk) {
+        List<Long> ids = chunk.stream().map(MyEntity::getId).collect(Collectors.toList());
+        Map<Long, Map<String, String>> valuesByEntity = new HashMap<>();
+        for (Object[] row : entityRepository.findCustomColumnValuesByEntityIds(ids)) {
+            valuesByEntity.computeIfAbsent((Long) row[0], id -> new HashMap<>())
+                    .putIfAbsent((String) row[1], (String) row[2]);
+        }
+
+        List<ExportRow> rows = new ArrayList<>(chunk.size());
+        for (MyEntity entity : chunk) {
+            rows.add(new ExportRow(entity.getId(), entity.getName(), entity.getDescription(),
+                    valuesByEntity.getOrDefault(entity.getId(), Collections.emptyMap())));
+        }
+        return rows;
+    }
+}
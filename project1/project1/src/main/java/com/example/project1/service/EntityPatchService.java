@@ -0,0 +1,263 @@
+package com.example.project1.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.project1.dto.EntityPatchRequest;
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Partial updates in RFC 7396 JSON Merge Patch form, applied to the managed entity so that
+ * dirty checking (with dynamic updates) writes only what the patch touched.
+ * customColumns follows merge patch rules: an array replaces every column. It may also be
+ * an object keyed by column name, which patches columns one by one: null removes the
+ * column, an object merges into it, or adds it if there is no column of that name.
+ */
+@Service
+public class EntityPatchService {
+
+    @Value("${app.patch.max-batch-size:500}")
+    private int maxBatchSize;
+
+    private final EntityRepository entityRepository;
+
+    private final Validator validator;
+
+    @Autowired
+    public EntityPatchService(EntityRepository entityRepository, Validator validator) {
+        this.entityRepository = entityRepository;
+        this.validator = validator;
+    }
+
+    /**
+     * Patches one entity if it is still at the expected version.
+     * @throws ObjectOptimisticLockingFailureException if it has changed or been deleted since
+     * @throws IllegalArgumentException if the patch is malformed or the result is invalid
+     */
+    @Transactional
+    public MyEntity patch(Long id, long expectedVersion, JsonNode patch) {
+        MyEntity entity = entityRepository.findById(id)
+                .orElseThrow(() -> new ObjectOptimisticLockingFailureException(MyEntity.class, id));
+        checkVersion(entity, expectedVersion);
+        apply(entity, patch);
+        validate(entity);
+        return entity;
+    }
+
+    /**
+     * Patches many entities in one transaction: the entities are loaded with a single query and
+     * the updates go out as JDBC batches. Either every patch applies or none does.
+     * @return the patched entities in request order, or empty if any of the ids does not exist
+     */
+    @Transactional
+    public Optional<List<MyEntity>> patchAll(List<EntityPatchRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " patches per request");
+        }
+        Set<Long> ids = new HashSet<>();
+        for (EntityPatchRequest request : requests) {
+            if (request.getId() == null || request.getPatch() == null) {
+                throw new IllegalArgumentException("Every patch needs an id and a patch document");
+            }
+            if (!ids.add(request.getId())) {
+                throw new IllegalArgumentException("Entity " + request.getId() + " is patched more than once");
+            }
+        }
+        if (ids.isEmpty()) {
+            return Optional.of(new ArrayList<>());
+        }
+
+        Map<Long, MyEntity> entities = entityRepository.findAllWithCustomColumnsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MyEntity::getId, Function.identity()));
+        if (entities.size() != ids.size()) {
+            return Optional.empty();
+        }
+
+        List<MyEntity> patched = new ArrayList<>(requests.size());
+        for (EntityPatchRequest request : requests) {
+            MyEntity entity = entities.get(request.getId());
+            if (request.getVersion() != null) {
+                checkVersion(entity, request.getVersion());
+            }
+            try {
+                apply(entity, request.getPatch());
+                validate(entity);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Entity " + request.getId() + ": " + e.getMessage(), e);
+            }
+            patched.add(entity);
+        }
+        return Optional.of(patched);
+    }
+
+    private static void checkVersion(MyEntity entity, long expectedVersion) {
+        if (entity.getVersion() != expectedVersion) {
+            throw new ObjectOptimisticLockingFailureException(MyEntity.class, entity.getId());
+        }
+    }
+
+    private void apply(MyEntity entity, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "name":
+                    entity.setName(text(field.getKey(), value));
+                    break;
+                case "description":
+                    entity.setDescription(text(field.getKey(), value));
+                    break;
+                case "customColumns":
+                    applyColumns(entity.getCustomColumns(), value);
+                    break;
+                case "id":
+                case "version":
+                    throw new IllegalArgumentException(field.getKey() + " cannot be patched");
+                default:
+                    throw new IllegalArgumentException("Unknown field: " + field.getKey());
+            }
+        }
+    }
+
+    private void applyColumns(List<CustomColumn> columns, JsonNode patch) {
+        if (patch.isNull()) {
+            columns.clear();
+        } else if (patch.isArray()) {
+            // Replaced in place, so the rows are still diffed by position
+            List<CustomColumn> replacement = new ArrayList<>(patch.size());
+            for (JsonNode element : patch) {
+                CustomColumn column = new CustomColumn();
+                applyColumn(column, element);
+                replacement.add(column);
+            }
+            columns.clear();
+            columns.addAll(replacement);
+        } else if (patch.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> entries = patch.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                int index = indexOf(columns, entry.getKey());
+                if (entry.getValue().isNull()) {
+                    if (index >= 0) {
+                        columns.remove(index);
+                    }
+                } else if (index >= 0) {
+                    applyColumn(columns.get(index), entry.getValue());
+                } else {
+                    CustomColumn column = new CustomColumn();
+                    column.setName(entry.getKey());
+                    applyColumn(column, entry.getValue());
+                    columns.add(column);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("customColumns must be an array, an object keyed by column name, or null");
+        }
+    }
+
+    private static void applyColumn(CustomColumn column, JsonNode patch) {
+        if (!patch.isObject()) {
+            throw new IllegalArgumentException("A custom column patch must be a JSON object");
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+            switch (name) {
+                case "name":
+                    column.setName(text(name, value));
+                    break;
+                case "value":
+                    column.setValue(text(name, value));
+                    break;
+                case "columnType":
+                    column.setColumnType(value.isNull() ? CustomColumnType.TEXT : columnType(value));
+                    break;
+                case "required":
+                    if (!value.isBoolean() && !value.isNull()) {
+                        throw new IllegalArgumentException("required must be a boolean");
+                    }
+                    column.setRequired(value.asBoolean(false));
+                    break;
+                case "validationPattern":
+                    column.setValidationPattern(text(name, value));
+                    break;
+                case "validationErrorMessage":
+                    column.setValidationErrorMessage(text(name, value));
+                    break;
+                case "options":
+                    column.setOptions(text(name, value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown custom column field: " + name);
+            }
+        }
+    }
+
+    private void validate(MyEntity entity) {
+        List<String> messages = new ArrayList<>();
+        for (ConstraintViolation<MyEntity> violation : validator.validate(entity)) {
+            messages.add(violation.getMessage());
+        }
+        for (CustomColumn column : entity.getCustomColumns()) {
+            for (ConstraintViolation<CustomColumn> violation : validator.validate(column)) {
+                messages.add(violation.getMessage());
+            }
+        }
+        if (!messages.isEmpty()) {
+            throw new IllegalArgumentException(messages.stream().sorted().collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static int indexOf(List<CustomColumn> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (name.equals(columns.get(i).getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String text(String field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isValueNode()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return value.asText();
+    }
+
+    private static CustomColumnType columnType(JsonNode value) {
+        try {
+            return CustomColumnType.valueOf(value.asText());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown column type: " + value.asText(), e);
+        }
+    }
+}
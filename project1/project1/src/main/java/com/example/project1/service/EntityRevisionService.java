@@ -0,0 +1,240 @@
+package com.example.project1.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.project1.dto.EntityRevisionDTO;
+import com.example.project1.model.EntityRevision;
+import com.example.project1.repository.EntityRevisionRepository;
+import com.example.project1.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Stores and reconstructs revisions in delta form.
+ * Each revision of an entity is numbered; every snapshot-interval-th revision (and the first)
+ * stores the full state, the others a JSON Patch against the previous revision. Payloads above
+ * the compression threshold are gzipped. A point-in-time read loads the nearest full state at
+ * or before the revision and replays at most snapshot-interval - 1 deltas.
+ */
+@Service
+public class EntityRevisionService {
+
+    private static final byte[] EMPTY_PATCH = "[]".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${app.audit.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    @Value("${app.audit.compress-threshold-bytes:512}")
+    private int compressThreshold;
+
+    @Value("${app.audit.state-cache-size:1000}")
+    private int stateCacheSize;
+
+    private final EntityRevisionRepository revisionRepository;
+
+    private final UserRepository userRepository;
+
+    private final ObjectMapper objectMapper;
+
+    // Latest revision per entity, so deltas need no database read; only the audit writer thread touches it
+    private final LinkedHashMap<String, LatestState> latestStates = new LinkedHashMap<String, LatestState>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LatestState> eldest) {
+            return size() > stateCacheSize;
+        }
+    };
+
+    private static class LatestState {
+        private final int number;
+        private final JsonNode state;
+
+        LatestState(int number, JsonNode state) {
+            this.number = number;
+            this.state = state;
+        }
+    }
+
+    @Autowired
+    public EntityRevisionService(EntityRevisionRepository revisionRepository, UserRepository userRepository,
+                                 ObjectMapper objectMapper) {
+        this.revisionRepository = revisionRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Numbers, encodes and saves committed changes in order. Called by {@link AuditTrailWriter}
+     * inside its batch transaction; if that transaction fails, {@link #evictLatestStates()} must be called.
+     */
+    public void append(List<AuditTrailWriter.AuditRecord> records) {
+        List<EntityRevision> revisions = new ArrayList<>(records.size());
+        for (AuditTrailWriter.AuditRecord record : records) {
+            String key = record.getEntityType() + ":" + record.getEntityId();
+            LatestState latest = latestStates.get(key);
+            if (latest == null) {
+                latest = loadLatest(record.getEntityType(), record.getEntityId());
+            }
+
+            // Entities audited before delta encoding start from the state captured with the change
+            JsonNode base = latest != null ? latest.state : readState(record.getPreviousState());
+            JsonNode state;
+            if (record.getRevisionType() == EntityRevision.RevisionType.DELETE) {
+                state = base;
+            } else if (record.getRevisionType() == EntityRevision.RevisionType.CREATE) {
+                state = readState(record.getNewState());
+            } else {
+                // Collections that were not loaded are absent from the captured state and carry over
+                state = overlay(base, readState(record.getNewState()));
+            }
+
+            int number = latest != null ? latest.number + 1 : 1;
+            boolean snapshot = latest == null || number % snapshotInterval == 0;
+
+            EntityRevision revision = new EntityRevision(record.getEntityType(), record.getEntityId(),
+                    record.getUserId() != null ? userRepository.getById(record.getUserId()) : null,
+                    record.getRevisionType(), null, null, record.getChangeDescription());
+            revision.setTimestamp(record.getTimestamp());
+            revision.setRevisionNumber(number);
+            revision.setEncoding(snapshot ? EntityRevision.Encoding.SNAPSHOT : EntityRevision.Encoding.DELTA);
+            setPayload(revision, snapshot ? state : JsonPatch.diff(latest.state, state));
+            revisions.add(revision);
+
+            latestStates.put(key, new LatestState(number, state));
+        }
+        revisionRepository.saveAll(revisions);
+    }
+
+    /**
+     * Forgets the cached latest states, e.g. after a batch failed to commit.
+     */
+    public void evictLatestStates() {
+        latestStates.clear();
+    }
+
+    @Transactional(readOnly = true)
+    public List<EntityRevisionDTO> listRevisions(String entityType, Long entityId, int limit) {
+        return revisionRepository.findNumberedRevisions(entityType, entityId, PageRequest.of(0, limit)).stream()
+                .map(EntityRevisionDTO::fromRevision)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reconstructs the state of an entity as of a revision by replaying deltas from the
+     * nearest full state.
+     */
+    @Transactional(readOnly = true)
+    public Optional<EntityRevisionDTO> getRevision(String entityType, Long entityId, int revisionNumber) {
+        List<EntityRevision> bases = revisionRepository.findFullStatesUpTo(entityType, entityId, revisionNumber,
+                EntityRevision.Encoding.DELTA, PageRequest.of(0, 1));
+        if (bases.isEmpty()) {
+            return Optional.empty();
+        }
+        EntityRevision target = bases.get(0);
+        JsonNode state = decodeFullState(target);
+        for (EntityRevision delta : revisionRepository.findRevisionsBetween(entityType, entityId,
+                target.getRevisionNumber(), revisionNumber)) {
+            state = JsonPatch.apply(state, decode(delta));
+            target = delta;
+        }
+        if (target.getRevisionNumber() != revisionNumber) {
+            return Optional.empty();
+        }
+
+        EntityRevisionDTO dto = EntityRevisionDTO.fromRevision(target);
+        dto.setState(state);
+        return Optional.of(dto);
+    }
+
+    private LatestState loadLatest(String entityType, Long entityId) {
+        Integer number = revisionRepository.findLatestRevisionNumber(entityType, entityId);
+        if (number == null) {
+            return null;
+        }
+        return getRevision(entityType, entityId, number)
+                .map(revision -> new LatestState(number, revision.getState()))
+                .orElse(null);
+    }
+
+    private JsonNode decodeFullState(EntityRevision revision) {
+        if (revision.getEncoding() == EntityRevision.Encoding.SNAPSHOT) {
+            return decode(revision);
+        }
+        return readState(revision.getNewState() != null ? revision.getNewState() : revision.getPreviousState());
+    }
+
+    private JsonNode decode(EntityRevision revision) {
+        byte[] payload = revision.getPayload() != null ? revision.getPayload() : EMPTY_PATCH;
+        try (InputStream in = revision.isCompressed()
+                ? new GZIPInputStream(new ByteArrayInputStream(payload))
+                : new ByteArrayInputStream(payload)) {
+            return objectMapper.readTree(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Revision " + revision.getId() + " has an unreadable payload", e);
+        }
+    }
+
+    private void setPayload(EntityRevision revision, JsonNode payload) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(payload);
+            if (bytes.length < compressThreshold) {
+                revision.setPayload(bytes);
+                return;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (OutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(bytes);
+            }
+            revision.setPayload(compressed.toByteArray());
+            revision.setCompressed(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode revision payload", e);
+        }
+    }
+
+    private JsonNode readState(String json) {
+        if (json == null) {
+            return objectMapper.createObjectNode();
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Audit state is not valid JSON", e);
+        }
+    }
+
+    private static JsonNode overlay(JsonNode base, JsonNode changes) {
+        if (!base.isObject() || !changes.isObject()) {
+            return changes;
+        }
+        ObjectNode merged = base.deepCopy();
+        Iterator<Map.Entry<String, JsonNode>> fields = changes.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            merged.set(field.getKey(), field.getValue());
+        }
+        return merged;
+    }
+}
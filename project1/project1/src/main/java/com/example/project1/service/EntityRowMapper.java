@@ -0,0 +1,44 @@
+package com.example.project1.service;
+
+import java.util.List;
+
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.MyEntity;
+
+/**
+ * Maps a tabular import row (CSV line or sheet row) to an entity using the header row.
+ * ID, Name and Description map to entity fields; any other non-empty cell becomes a TEXT custom column.
+ */
+final class EntityRowMapper {
+
+    private EntityRowMapper() {}
+
+    static MyEntity toEntity(List<String> columnNames, List<String> values) {
+        MyEntity entity = new MyEntity();
+
+        for (int i = 0; i < values.size() && i < columnNames.size(); i++) {
+            String columnName = columnNames.get(i);
+            String value = values.get(i) != null ? values.get(i) : "";
+
+            if (columnName.equals("ID")) {
+                if (!value.isEmpty()) {
+                    try {
+                        entity.setId(Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        // Ignore invalid ID
+                    }
+                }
+            } else if (columnName.equals("Name")) {
+                entity.setName(value);
+            } else if (columnName.equals("Description")) {
+                entity.setDescription(value);
+            } else if (!value.isEmpty()) {
+                // Handle as custom column
+                entity.getCustomColumns().add(new CustomColumn(columnName, value, CustomColumnType.TEXT));
+            }
+        }
+
+        return entity;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.project1.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.project1.dto.CursorPage;
+import com.example.project1.dto.EntitySearchRequest;
+import com.example.project1.dto.SearchCriterionDTO;
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+
+/**
+ * Compiles advanced search criteria into a single JPQL query so that filtering
+ * happens in the database instead of in the browser.
+ * Custom column criteria become EXISTS subqueries over entity_custom_columns.
+ */
+@Service
+public class EntitySearchService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final EntityRepository entityRepository;
+
+    @Autowired
+    public EntitySearchService(EntityRepository entityRepository) {
+        this.entityRepository = entityRepository;
+    }
+
+    /**
+     * Runs a search and returns one keyset page of matching entities.
+     * @throws IllegalArgumentException if a criterion is incomplete or malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MyEntity> search(EntitySearchRequest request) {
+        int limit = request.getLimit() != null ? request.getLimit() : EntityService.DEFAULT_PAGE_SIZE;
+        int pageSize = Math.max(1, Math.min(limit, EntityService.MAX_PAGE_SIZE));
+        long afterId = EntityService.decodeCursor(request.getCursor());
+
+        Map<String, Object> params = new HashMap<>();
+        List<String> predicates = new ArrayList<>();
+        if (request.getCriteria() != null) {
+            for (SearchCriterionDTO criterion : request.getCriteria()) {
+                predicates.add(compile(criterion, params));
+            }
+        }
+
+        StringBuilder jpql = new StringBuilder("select e.id from MyEntity e where e.id > :afterId");
+        if (!predicates.isEmpty()) {
+            String joiner = request.isMatchAll() ? " and " : " or ";
+            jpql.append(" and (").append(String.join(joiner, predicates)).append(")");
+        }
+        jpql.append(" order by e.id asc");
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        query.setParameter("afterId", afterId);
+        params.forEach(query::setParameter);
+        query.setMaxResults(pageSize + 1);
+
+        List<Long> ids = query.getResultList();
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        List<MyEntity> entities = ids.isEmpty()
+                ? new ArrayList<>()
+                : entityRepository.findAllWithCustomColumnsByIdIn(ids);
+
+        String nextCursor = hasMore ? EntityService.encodeCursor(ids.get(ids.size() - 1)) : null;
+        return new CursorPage<>(entities, nextCursor, pageSize);
+    }
+
+    private String compile(SearchCriterionDTO criterion, Map<String, Object> params) {
+        if (criterion.getField() == null || criterion.getOperator() == null) {
+            throw new IllegalArgumentException("Search criteria require a field and an operator");
+        }
+
+        switch (criterion.getField()) {
+            case NAME:
+                return compileText("e.name", criterion, params);
+            case DESCRIPTION:
+                return compileText("e.description", criterion, params);
+            case CREATED_DATE:
+                return compileDate("e.createdDate", criterion, params);
+            case CUSTOM_COLUMN:
+                return compileCustomColumn(criterion, params);
+            default:
+                throw new IllegalArgumentException("Unsupported search field: " + criterion.getField());
+        }
+    }
+
+    private String compileCustomColumn(SearchCriterionDTO criterion, Map<String, Object> params) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add("s.id = e.id");
+
+        if (criterion.getColumnName() != null && !criterion.getColumnName().isBlank()) {
+            conditions.add("c.name = :" + bind(params, criterion.getColumnName()));
+        }
+        if (criterion.getColumnType() != null) {
+            conditions.add("c.columnType = :" + bind(params, criterion.getColumnType()));
+        }
+        // A criterion with only a name and/or type matches entities that have such a column
+        if (hasOperand(criterion)) {
+            conditions.add(compileText("c.value", criterion, params));
+        }
+
+        return "exists (select 1 from MyEntity s join s.customColumns c where "
+                + String.join(" and ", conditions) + ")";
+    }
+
+    private String compileText(String path, SearchCriterionDTO criterion, Map<String, Object> params) {
+        switch (criterion.getOperator()) {
+            case EQ:
+                return path + " = :" + bind(params, requireValue(criterion));
+            case CONTAINS:
+                return "lower(" + path + ") like :" + bind(params, "%" + escapeLike(requireValue(criterion).toLowerCase()) + "%")
+                        + " escape '\\'";
+            case PREFIX:
+                return "lower(" + path + ") like :" + bind(params, escapeLike(requireValue(criterion).toLowerCase()) + "%")
+                        + " escape '\\'";
+            case IN:
+                if (criterion.getValues() == null || criterion.getValues().isEmpty()) {
+                    throw new IllegalArgumentException("IN operator requires at least one value");
+                }
+                return path + " in (:" + bind(params, criterion.getValues()) + ")";
+            case RANGE:
+                return compileRange(path, criterion.getFrom(), criterion.getTo(), params);
+            default:
+                throw new IllegalArgumentException("Unsupported operator: " + criterion.getOperator());
+        }
+    }
+
+    private String compileDate(String path, SearchCriterionDTO criterion, Map<String, Object> params) {
+        switch (criterion.getOperator()) {
+            case EQ:
+                LocalDate day = parseDate(requireValue(criterion), false).toLocalDate();
+                return compileRange(path, day.atStartOfDay(), day.atTime(LocalTime.MAX), params);
+            case RANGE:
+                LocalDateTime from = criterion.getFrom() != null ? parseDate(criterion.getFrom(), false) : null;
+                LocalDateTime to = criterion.getTo() != null ? parseDate(criterion.getTo(), true) : null;
+                return compileRange(path, from, to, params);
+            default:
+                throw new IllegalArgumentException("Operator " + criterion.getOperator() + " is not supported for CREATED_DATE");
+        }
+    }
+
+    private String compileRange(String path, Object from, Object to, Map<String, Object> params) {
+        if (from == null && to == null) {
+            throw new IllegalArgumentException("RANGE operator requires from and/or to");
+        }
+        List<String> bounds = new ArrayList<>();
+        if (from != null) {
+            bounds.add(path + " >= :" + bind(params, from));
+        }
+        if (to != null) {
+            bounds.add(path + " <= :" + bind(params, to));
+        }
+        return "(" + String.join(" and ", bounds) + ")";
+    }
+
+    private String bind(Map<String, Object> params, Object value) {
+        String name = "p" + params.size();
+        params.put(name, value);
+        return name;
+    }
+
+    private boolean hasOperand(SearchCriterionDTO criterion) {
+        return criterion.getValue() != null
+                || (criterion.getValues() != null && !criterion.getValues().isEmpty())
+                || criterion.getFrom() != null
+                || criterion.getTo() != null;
+    }
+
+    private String requireValue(SearchCriterionDTO criterion) {
+        if (criterion.getValue() == null) {
+            throw new IllegalArgumentException("Operator " + criterion.getOperator() + " requires a value");
+        }
+        return criterion.getValue();
+    }
+
+    /**
+     * Accepts either an ISO date (yyyy-MM-dd) or an ISO date-time.
+     * A bare date used as an upper bound covers the whole day.
+     */
+    private LocalDateTime parseDate(String text, boolean endOfDay) {
+        try {
+            if (text.length() <= 10) {
+                LocalDate date = LocalDate.parse(text);
+                return endOfDay ? date.atTime(LocalTime.MAX) : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + text, e);
+        }
+    }
+
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
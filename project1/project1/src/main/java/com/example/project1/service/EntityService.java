@@ -1,17 +1,28 @@
 package com.example.project1.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.project1.dto.CursorPage;
 import com.example.project1.model.MyEntity;
 import com.example.project1.repository.EntityRepository;
 
 @Service
 public class EntityService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String CURSOR_PREFIX = "id:";
+
     private final EntityRepository entityRepository;
 
     @Autowired
@@ -19,19 +30,113 @@ public class EntityService {
         this.entityRepository = entityRepository;
     }
 
+    /**
+     * Loads every entity, walking the table in keyset pages so that custom columns
+     * are fetched with one query per page instead of one per entity.
+     */
+    @Transactional(readOnly = true)
     public List<MyEntity> findAll() {
-        return entityRepository.findAll();
+        List<MyEntity> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<MyEntity> page = findPage(cursor, MAX_PAGE_SIZE);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    /**
+     * Returns one keyset page of entities ordered by id, with custom columns loaded.
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     * @param limit page size, clamped to [1, MAX_PAGE_SIZE]
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MyEntity> findPage(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterId = decodeCursor(cursor);
+
+        // Fetch one extra id to find out whether another page follows
+        List<Long> ids = entityRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        List<MyEntity> entities = ids.isEmpty()
+                ? new ArrayList<>()
+                : entityRepository.findAllWithCustomColumnsByIdIn(ids);
+
+        String nextCursor = hasMore ? encodeCursor(ids.get(ids.size() - 1)) : null;
+        return new CursorPage<>(entities, nextCursor, pageSize);
+    }
+
+    public long count() {
+        return entityRepository.count();
     }
 
     public Optional<MyEntity> findById(Long id) {
         return entityRepository.findById(id);
     }
 
+    /**
+     * Unconditional save: an entity with an id overwrites whatever is stored (imports, create).
+     */
     public MyEntity save(MyEntity entity) {
+        if (entity.getId() != null) {
+            entityRepository.adoptCurrentVersions(List.of(entity));
+        }
+        return entityRepository.save(entity);
+    }
+
+    /**
+     * Overwrites an entity only if it is still at the expected version.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if it has changed since
+     */
+    public MyEntity update(MyEntity entity, long expectedVersion) {
+        entity.setVersion(expectedVersion);
         return entityRepository.save(entity);
     }
 
+    /**
+     * Deletes an entity only if it is still at the version it was loaded with.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if it has changed since
+     */
+    public void delete(MyEntity entity) {
+        entityRepository.delete(entity);
+    }
+
     public void deleteById(Long id) {
         entityRepository.deleteById(id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Weak ETag for the entity collection, from a single aggregate query.
+     */
+    @Transactional(readOnly = true)
+    public String collectionETag() {
+        Object[] row = entityRepository.findCollectionVersion().get(0);
+        return "W/\"" + row[0] + "-" + row[1] + "-" + row[2] + "\"";
+    }
+
+    static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 decoding errors both land here
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
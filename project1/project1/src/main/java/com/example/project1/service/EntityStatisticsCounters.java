@@ -0,0 +1,281 @@
+package com.example.project1.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.project1.dto.EntityStatistics;
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.StatisticsCounter;
+import com.example.project1.repository.StatisticsCounterRepository;
+
+/**
+ * Materialized entity statistics.
+ * Entity writes record their changes through {@link EntityStatisticsListener} and
+ * {@link EntityColumnStatisticsListener}; the changes of a transaction are added to the
+ * statistics_counters table just before it commits and to the in-memory LongAdder mirror
+ * once it has committed, so reads never touch the entity tables.
+ */
+@Component
+public class EntityStatisticsCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityStatisticsCounters.class);
+
+    static final String TOTAL_ENTITIES = "entities.total";
+    static final String ENTITIES_WITH_CUSTOM_COLUMNS = "entities.with_custom_columns";
+    static final String COLUMN_TYPE_PREFIX = "custom_columns.";
+
+    private static final CustomColumnType[] COLUMN_TYPES = CustomColumnType.values();
+
+    private final LongAdder totalEntities = new LongAdder();
+    private final LongAdder entitiesWithCustomColumns = new LongAdder();
+    private final Map<CustomColumnType, LongAdder> columnTypeCounts = new EnumMap<>(CustomColumnType.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StatisticsCounterRepository counterRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public EntityStatisticsCounters(StatisticsCounterRepository counterRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (CustomColumnType type : COLUMN_TYPES) {
+            columnTypeCounts.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns the current counter values without querying the database.
+     */
+    public EntityStatistics snapshot() {
+        Map<CustomColumnType, Long> counts = new EnumMap<>(CustomColumnType.class);
+        columnTypeCounts.forEach((type, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                counts.put(type, count);
+            }
+        });
+        return new EntityStatistics(totalEntities.sum(), entitiesWithCustomColumns.sum(), counts, LocalDateTime.now());
+    }
+
+    /**
+     * Loads the mirror from the summary table.
+     * @return false if the table is empty and the counters have to be computed
+     */
+    public boolean loadFromTable() {
+        List<StatisticsCounter> rows = counterRepository.findAll();
+        if (rows.isEmpty()) {
+            return false;
+        }
+        Map<String, Long> values = new LinkedHashMap<>();
+        rows.forEach(row -> values.put(row.getName(), row.getValue()));
+        setMirror(values);
+        return true;
+    }
+
+    /**
+     * Corrects the table and the mirror to freshly computed statistics. The statistics are
+     * computed in the same transaction, while every counter row is write-locked: a writer whose
+     * counter update is already applied has committed before the computation starts, and any
+     * other waits for the correction to commit and then adds its change on top of it.
+     * The mirror receives the same correction as a delta, so concurrent commits are not lost.
+     * @param compute computes the statistics from the entity tables
+     * @return true if the counters had drifted from the actual values
+     */
+    public boolean reconcile(Supplier<EntityStatistics> compute) {
+        return transactionTemplate.execute(status -> {
+            Map<String, StatisticsCounter> rows = new LinkedHashMap<>();
+            counterRepository.findAllForUpdate().forEach(row -> rows.put(row.getName(), row));
+            Map<String, Long> actual = toCounterValues(compute.get());
+
+            LocalDateTime now = LocalDateTime.now();
+            Map<String, Long> correction = new LinkedHashMap<>();
+            List<StatisticsCounter> created = new ArrayList<>();
+            actual.forEach((name, value) -> {
+                StatisticsCounter row = rows.get(name);
+                long current = row != null ? row.getValue() : 0L;
+                correction.put(name, value - current);
+                if (row == null) {
+                    created.add(new StatisticsCounter(name, value));
+                } else if (current != value) {
+                    row.setValue(value);
+                    row.setUpdatedDate(now);
+                }
+            });
+            counterRepository.saveAll(created);
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyToMirror(correction);
+                }
+            });
+            return !rows.isEmpty() && correction.values().stream().anyMatch(change -> change != 0);
+        });
+    }
+
+    void entityAdded(Collection<CustomColumn> columns) {
+        Delta delta = pendingDelta();
+        if (delta != null) {
+            delta.entities++;
+            delta.columns(1, columns);
+        }
+    }
+
+    void entityRemoved(Collection<CustomColumn> columns) {
+        Delta delta = pendingDelta();
+        if (delta != null) {
+            delta.entities--;
+            delta.columns(-1, columns);
+        }
+    }
+
+    void columnsChanged(Collection<CustomColumn> before, Collection<CustomColumn> after) {
+        Delta delta = pendingDelta();
+        if (delta != null) {
+            delta.columns(-1, before);
+            delta.columns(1, after);
+        }
+    }
+
+    /**
+     * Returns the changes recorded by the current transaction, registering the table update
+     * and the mirror update the first time.
+     */
+    private Delta pendingDelta() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Not expected for repository writes; reconciliation picks up the change
+            logger.debug("Entity written outside a transaction; statistics counters not updated");
+            return null;
+        }
+        Delta delta = (Delta) TransactionSynchronizationManager.getResource(this);
+        if (delta != null) {
+            return delta;
+        }
+
+        Delta created = new Delta();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(EntityStatisticsCounters.this);
+                if (status == STATUS_COMMITTED) {
+                    applyToMirror(created.toCounterValues());
+                }
+            }
+        });
+        // Runs after Hibernate's commit-time flush, so writes flushed at commit are included
+        entityManager.unwrap(SessionImplementor.class).getActionQueue()
+                .registerProcess((BeforeTransactionCompletionProcess) session -> applyToTable(session, created));
+        return created;
+    }
+
+    private void applyToTable(SessionImplementor session, Delta delta) {
+        LocalDateTime now = LocalDateTime.now();
+        delta.toCounterValues().forEach((name, change) -> {
+            if (change == 0) {
+                return;
+            }
+            int updated = session.createQuery("update StatisticsCounter c set c.value = c.value + :change, "
+                            + "c.updatedDate = :now where c.name = :name")
+                    .setParameter("change", change)
+                    .setParameter("now", now)
+                    .setParameter("name", name)
+                    .executeUpdate();
+            if (updated == 0) {
+                session.persist(new StatisticsCounter(name, change));
+                session.flush();
+            }
+        });
+    }
+
+    private void applyToMirror(Map<String, Long> changes) {
+        totalEntities.add(changes.getOrDefault(TOTAL_ENTITIES, 0L));
+        entitiesWithCustomColumns.add(changes.getOrDefault(ENTITIES_WITH_CUSTOM_COLUMNS, 0L));
+        for (CustomColumnType type : COLUMN_TYPES) {
+            columnTypeCounts.get(type).add(changes.getOrDefault(COLUMN_TYPE_PREFIX + type.name(), 0L));
+        }
+    }
+
+    // Only used at startup, before the counters receive any deltas
+    private void setMirror(Map<String, Long> values) {
+        set(totalEntities, values.get(TOTAL_ENTITIES));
+        set(entitiesWithCustomColumns, values.get(ENTITIES_WITH_CUSTOM_COLUMNS));
+        for (CustomColumnType type : COLUMN_TYPES) {
+            set(columnTypeCounts.get(type), values.get(COLUMN_TYPE_PREFIX + type.name()));
+        }
+    }
+
+    private static void set(LongAdder adder, Long value) {
+        adder.reset();
+        adder.add(value != null ? value : 0L);
+    }
+
+    private static Map<String, Long> toCounterValues(EntityStatistics statistics) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put(TOTAL_ENTITIES, statistics.getTotalEntities());
+        values.put(ENTITIES_WITH_CUSTOM_COLUMNS, statistics.getEntitiesWithCustomColumns());
+        for (CustomColumnType type : COLUMN_TYPES) {
+            values.put(COLUMN_TYPE_PREFIX + type.name(), statistics.getColumnTypeCounts().getOrDefault(type, 0L));
+        }
+        return values;
+    }
+
+    /**
+     * Counter changes made by one transaction.
+     */
+    private static class Delta {
+        private long entities;
+        private long entitiesWithColumns;
+        private final long[] columnTypes = new long[COLUMN_TYPES.length];
+
+        void columns(int sign, Collection<CustomColumn> columns) {
+            if (columns == null || columns.isEmpty()) {
+                return;
+            }
+            entitiesWithColumns += sign;
+            for (CustomColumn column : columns) {
+                if (column != null) {
+                    // A column without a type counts as TEXT, the default, as in the computed statistics
+                    CustomColumnType type = column.getColumnType() != null ? column.getColumnType() : CustomColumnType.TEXT;
+                    columnTypes[type.ordinal()] += sign;
+                }
+            }
+        }
+
+        Map<String, Long> toCounterValues() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put(TOTAL_ENTITIES, entities);
+            values.put(ENTITIES_WITH_CUSTOM_COLUMNS, entitiesWithColumns);
+            for (CustomColumnType type : COLUMN_TYPES) {
+                values.put(COLUMN_TYPE_PREFIX + type.name(), columnTypes[type.ordinal()]);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.project1.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PreRemove;
+
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.MyEntity;
+
+/**
+ * JPA listener on {@link MyEntity} that reports inserts and deletes to
+ * {@link EntityStatisticsCounters}; custom column changes on existing entities are reported by
+ * {@link EntityColumnStatisticsListener}. Instantiated by Hibernate through Spring; the counters
+ * are looked up lazily because the listener is created while the EntityManagerFactory starts.
+ */
+public class EntityStatisticsListener {
+
+    private final ObjectProvider<EntityStatisticsCounters> counters;
+
+    public EntityStatisticsListener(ObjectProvider<EntityStatisticsCounters> counters) {
+        this.counters = counters;
+    }
+
+    @PostPersist
+    public void entityPersisted(MyEntity entity) {
+        counters.getObject().entityAdded(entity.getCustomColumns());
+    }
+
+    @PreRemove
+    public void entityRemoving(MyEntity entity) {
+        Collection<CustomColumn> columns = entity.getCustomColumns();
+        if (columns instanceof PersistentCollection) {
+            PersistentCollection persistent = (PersistentCollection) columns;
+            Hibernate.initialize(persistent);
+            if (persistent.getStoredSnapshot() instanceof List) {
+                columns = castColumns(persistent.getStoredSnapshot());
+            }
+        }
+        counters.getObject().entityRemoved(columns);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<CustomColumn> castColumns(Object snapshot) {
+        return (Collection<CustomColumn>) snapshot;
+    }
+}
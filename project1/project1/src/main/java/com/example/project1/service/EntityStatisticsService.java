@@ -1,81 +1,132 @@
 package com.example.project1.service;
 
 import java.io.File;
-import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.general.DefaultPieDataset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.example.project1.model.CustomColumn;
+import com.example.project1.dto.EntityStatistics;
 import com.example.project1.model.CustomColumnType;
-import com.example.project1.model.MyEntity;
-import com.example.project1.repository.EntityRepository;
 
 @Service
 public class EntityStatisticsService {
     
+    private static final Logger logger = LoggerFactory.getLogger(EntityStatisticsService.class);
+    
+    private static final CustomColumnType[] COLUMN_TYPES = CustomColumnType.values();
+    
+    private static final String STATISTICS_QUERY = statisticsQuery();
+    
     @Autowired
-    private EntityRepository entityRepository;
+    private EntityStatisticsCounters counters;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Returns the incrementally maintained statistics; does not query the database.
+     */
+    public EntityStatistics getStatistics() {
+        return counters.snapshot();
+    }
+    
+    /**
+     * Computes all statistics in a single pass over the entities left-joined to their
+     * custom columns, without loading any entity. Used to initialize and reconcile the counters.
+     */
+    @Transactional(readOnly = true)
+    public EntityStatistics computeStatistics() {
+        Object[] row = (Object[]) entityManager.createNativeQuery(STATISTICS_QUERY).getSingleResult();
+        Map<CustomColumnType, Long> typeCount = new EnumMap<>(CustomColumnType.class);
+        for (CustomColumnType type : COLUMN_TYPES) {
+            long count = toLong(row[2 + type.ordinal()]);
+            if (count > 0) {
+                typeCount.put(type, count);
+            }
+        }
+        
+        return new EntityStatistics(toLong(row[0]), toLong(row[1]), typeCount, LocalDateTime.now());
+    }
+    
+    // Column types are stored by ordinal; a column without a type counts as TEXT, the default
+    private static String statisticsQuery() {
+        StringBuilder sql = new StringBuilder("select count(distinct e.id), count(distinct c.entity_id)");
+        for (CustomColumnType type : COLUMN_TYPES) {
+            String matches = type == CustomColumnType.TEXT
+                    ? "(c.column_type = " + type.ordinal() + " or c.column_type is null)"
+                    : "c.column_type = " + type.ordinal();
+            sql.append(", sum(case when c.entity_id is not null and ").append(matches).append(" then 1 else 0 end)");
+        }
+        return sql.append(" from my_entity e left join entity_custom_columns c on c.entity_id = e.id").toString();
+    }
+    
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeCounters() {
+        if (!counters.loadFromTable()) {
+            counters.reconcile(this::computeStatistics);
+            logger.info("Initialized statistics counters from the entity tables");
+        }
+    }
+    
+    /**
+     * Recomputes the statistics from the tables and corrects the counters if they drifted,
+     * e.g. after writes that bypassed JPA.
+     */
+    @Scheduled(initialDelayString = "${app.statistics.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${app.statistics.reconcile-interval-ms:3600000}")
+    public void reconcileCounters() {
+        if (counters.reconcile(this::computeStatistics)) {
+            logger.warn("Statistics counters had drifted from the entity tables and were corrected");
+        }
+    }
     
     /**
      * Counts the total number of entities
      */
     public int countTotalEntities() {
-        return (int) entityRepository.count();
+        return (int) getStatistics().getTotalEntities();
     }
     
     /**
      * Counts the number of entities that have at least one custom column
      */
     public int countEntitiesWithCustomColumns() {
-        List<MyEntity> entities = entityRepository.findAll();
-        return (int) entities.stream()
-                .filter(entity -> entity.getCustomColumns() != null && !entity.getCustomColumns().isEmpty())
-                .count();
+        return (int) getStatistics().getEntitiesWithCustomColumns();
     }
     
     /**
      * Counts the total number of custom columns across all entities
      */
     public int countTotalCustomColumns() {
-        List<MyEntity> entities = entityRepository.findAll();
-        return entities.stream()
-                .filter(entity -> entity.getCustomColumns() != null)
-                .mapToInt(entity -> entity.getCustomColumns().size())
-                .sum();
+        return (int) getStatistics().getTotalCustomColumns();
     }
     
     /**
      * Finds the most common custom column type
      */
     public String getMostCommonColumnType() {
-        List<MyEntity> entities = entityRepository.findAll();
-        Map<CustomColumnType, Integer> typeCount = new HashMap<>();
-        
-        entities.stream()
-                .filter(entity -> entity.getCustomColumns() != null)
-                .flatMap(entity -> entity.getCustomColumns().stream())
-                .forEach(column -> {
-                    CustomColumnType type = column.getColumnType();
-                    typeCount.put(type, typeCount.getOrDefault(type, 0) + 1);
-                });
-        
-        if (typeCount.isEmpty()) {
-            return "None";
-        }
-        
-        return typeCount.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .get().getKey().toString();
+        return getStatistics().getMostCommonColumnType();
     }
     
     /**
@@ -83,19 +134,17 @@ public class EntityStatisticsService {
      * @return Path to the generated chart image
      */
     public String generateColumnTypePieChart() {
+        return generateColumnTypePieChart(getStatistics());
+    }
+    
+    /**
+     * Generates a pie chart image of custom column types from a statistics snapshot
+     * @return Path to the generated chart image
+     */
+    public String generateColumnTypePieChart(EntityStatistics statistics) {
         try {
-            List<MyEntity> entities = entityRepository.findAll();
-            Map<CustomColumnType, Integer> typeCount = new HashMap<>();
-            
-            entities.stream()
-                    .filter(entity -> entity.getCustomColumns() != null)
-                    .flatMap(entity -> entity.getCustomColumns().stream())
-                    .forEach(column -> {
-                        CustomColumnType type = column.getColumnType();
-                        typeCount.put(type, typeCount.getOrDefault(type, 0) + 1);
-                    });
-              DefaultPieDataset dataset = new DefaultPieDataset();
-            typeCount.forEach((type, count) -> dataset.setValue(type.toString(), count));
+            DefaultPieDataset dataset = new DefaultPieDataset();
+            statistics.getColumnTypeCounts().forEach((type, count) -> dataset.setValue(type.toString(), count));
             
             JFreeChart chart = ChartFactory.createPieChart(
                     "Custom Column Types Distribution",
@@ -120,13 +169,15 @@ public class EntityStatisticsService {
      * @return Map of parameters
      */
     public Map<String, Object> prepareStatisticsReportParameters() {
+        EntityStatistics statistics = getStatistics();
+        
         Map<String, Object> parameters = new HashMap<>();
-        parameters.put("totalEntities", countTotalEntities());
-        parameters.put("entitiesWithCustomColumns", countEntitiesWithCustomColumns());
-        parameters.put("totalCustomColumns", countTotalCustomColumns());
-        parameters.put("mostCommonColumnType", getMostCommonColumnType());
+        parameters.put("totalEntities", (int) statistics.getTotalEntities());
+        parameters.put("entitiesWithCustomColumns", (int) statistics.getEntitiesWithCustomColumns());
+        parameters.put("totalCustomColumns", (int) statistics.getTotalCustomColumns());
+        parameters.put("mostCommonColumnType", statistics.getMostCommonColumnType());
         parameters.put("reportDate", new java.util.Date());
-        parameters.put("chartImagePath", generateColumnTypePieChart());
+        parameters.put("chartImagePath", generateColumnTypePieChart(statistics));
         
         return parameters;
     }
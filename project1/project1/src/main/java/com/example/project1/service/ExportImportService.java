@@ -3,7 +3,9 @@ package com.example.project1.service;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -12,8 +14,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import com.opencsv.exceptions.CsvValidationException;
 
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CreationHelper;
@@ -21,9 +27,13 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.opencsv.CSVReader;
@@ -44,9 +54,156 @@ public class ExportImportService {
     @Autowired
     private EntityRepository entityRepository;
     
+    @Autowired
+    private EntityExportReader exportReader;
+    
+    @Autowired
+    private XlsxStreamingReader xlsxReader;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Rows parsed from an upload before they are handed to the database
+    private static final int IMPORT_BATCH_SIZE = 500;
+    
+    // Rows kept in memory by the streaming workbook; older rows are flushed to a temp file
+    @Value("${app.export.excel.row-window:100}")
+    private int excelRowWindow;
+    
+    // Leading rows inspected to size columns in streaming mode
+    @Value("${app.export.excel.width-sample-rows:500}")
+    private int excelWidthSampleRows;
+    
     private static String SHEET_NAME = "MyEntities";
     private static String[] HEADERS = { "ID", "Name", "Description" };
     
+    // Excel caps column width at 255 characters
+    private static final int MAX_COLUMN_WIDTH_CHARS = 255;
+    
+    /**
+     * Export entities to Excel, streaming rows to the given output with a bounded in-memory window.
+     * Column widths are estimated from a sample of rows instead of autosizing, and rows
+     * continue on a new sheet once a sheet reaches the Excel row limit.
+     */
+    public void exportToExcel(OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(excelRowWindow);
+        workbook.setCompressTempFiles(true);
+        
+        try {
+            StreamingSheetWriter writer = new StreamingSheetWriter(workbook, excelWidthSampleRows);
+            exportReader.read(writer);
+            writer.finish();
+            
+            workbook.write(out);
+        } finally {
+            // Remove the temp files backing flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    
+    /**
+     * Writes export rows into a streaming workbook, rolling over to a new sheet at the row limit.
+     */
+    private static class StreamingSheetWriter implements EntityExportReader.Handler {
+        private final SXSSFWorkbook workbook;
+        private final int widthSampleRows;
+        private final int maxRows = SpreadsheetVersion.EXCEL2007.getMaxRows();
+        private final CellStyle headerCellStyle;
+        private List<String> headers;
+        private int[] sampledWidths;
+        private SXSSFSheet sheet;
+        private int rowIdx;
+        private int sampledRows;
+        
+        StreamingSheetWriter(SXSSFWorkbook workbook, int widthSampleRows) {
+            this.workbook = workbook;
+            this.widthSampleRows = widthSampleRows;
+            
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            this.headerCellStyle = workbook.createCellStyle();
+            this.headerCellStyle.setFont(headerFont);
+        }
+        
+        @Override
+        public void header(List<String> customColumnNames) {
+            headers = new ArrayList<>(Arrays.asList(HEADERS));
+            headers.addAll(customColumnNames);
+            sampledWidths = new int[headers.size()];
+            for (int i = 0; i < headers.size(); i++) {
+                sampledWidths[i] = headers.get(i).length();
+            }
+            startSheet();
+        }
+        
+        @Override
+        public void rows(List<EntityExportReader.ExportRow> rows) {
+            for (EntityExportReader.ExportRow entity : rows) {
+                if (rowIdx >= maxRows) {
+                    startSheet();
+                }
+                
+                String[] values = new String[headers.size()];
+                values[0] = entity.getId().toString();
+                values[1] = entity.getName() != null ? entity.getName() : "";
+                values[2] = entity.getDescription() != null ? entity.getDescription() : "";
+                for (int i = HEADERS.length; i < headers.size(); i++) {
+                    values[i] = entity.getCustomValue(headers.get(i));
+                }
+                
+                Row row = sheet.createRow(rowIdx);
+                row.createCell(0).setCellValue(entity.getId());
+                for (int i = 1; i < values.length; i++) {
+                    row.createCell(i).setCellValue(values[i]);
+                }
+                
+                // Only the first rows of the export contribute to column widths
+                if (sampledRows < widthSampleRows) {
+                    for (int i = 0; i < values.length; i++) {
+                        sampledWidths[i] = Math.max(sampledWidths[i], values[i].length());
+                    }
+                    sampledRows++;
+                }
+                rowIdx++;
+            }
+        }
+        
+        /**
+         * Applies the sampled widths to the last sheet; earlier sheets get them on rollover.
+         */
+        void finish() {
+            if (sheet != null) {
+                applyColumnWidths();
+            }
+        }
+        
+        private void startSheet() {
+            finish();
+            int sheetNumber = workbook.getNumberOfSheets() + 1;
+            sheet = workbook.createSheet(sheetNumber == 1 ? SHEET_NAME : SHEET_NAME + " " + sheetNumber);
+            
+            Row headerRow = sheet.createRow(0);
+            for (int col = 0; col < headers.size(); col++) {
+                Cell cell = headerRow.createCell(col);
+                cell.setCellValue(headers.get(col));
+                cell.setCellStyle(headerCellStyle);
+            }
+            rowIdx = 1;
+        }
+        
+        private void applyColumnWidths() {
+            for (int i = 0; i < sampledWidths.length; i++) {
+                int chars = Math.min(sampledWidths[i] + 2, MAX_COLUMN_WIDTH_CHARS);
+                sheet.setColumnWidth(i, chars * 256);
+            }
+        }
+    }
+    
+    /**
+     * Export entities to Excel by building the whole workbook in memory.
+     * Prefer the streaming overload for large tables.
+     */
     public ByteArrayInputStream exportToExcel() {
         try (Workbook workbook = new XSSFWorkbook(); 
                 ByteArrayOutputStream out = new ByteArrayOutputStream()) {
@@ -225,12 +382,64 @@ public class ExportImportService {
                 
                 entities.add(entity);
             }              // Save all entities
+            entityRepository.adoptCurrentVersions(entities);
             return entityRepository.saveAll(entities);
         } catch (Exception e) {
             throw new RuntimeException("Failed to import CSV data: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Import entities from an .xlsx file using the SAX event model.
+     * Rows are saved in batches while the sheet is still being parsed, so the workbook
+     * is never held in memory as a whole. The import runs in one transaction; each batch is
+     * flushed and detached, so a failure in a later row still rolls back every earlier batch.
+     * @return the number of imported entities
+     */
+    @Transactional(rollbackFor = IOException.class)
+    public int importFromExcelStreaming(MultipartFile file) throws IOException {
+        ExcelRowImporter importer = new ExcelRowImporter();
+        try (InputStream in = file.getInputStream()) {
+            xlsxReader.read(in, importer);
+        }
+        importer.flush();
+        return importer.imported;
+    }
+    
+    /**
+     * Maps streamed sheet rows to entities using the header row, saving them batch by batch.
+     * Each batch is flushed and cleared from the persistence context to keep it small.
+     */
+    private class ExcelRowImporter implements XlsxStreamingReader.RowHandler {
+        private final List<MyEntity> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        private List<String> columnNames;
+        private int imported;
+        
+        @Override
+        public void row(int rowNum, List<String> cells) {
+            if (columnNames == null) {
+                columnNames = cells;
+                return;
+            }
+            
+            batch.add(EntityRowMapper.toEntity(columnNames, cells));
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (!batch.isEmpty()) {
+                entityRepository.adoptCurrentVersions(batch);
+                entityRepository.saveAll(batch);
+                entityManager.flush();
+                entityManager.clear();
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+    }
+    
     public List<MyEntity> importFromExcel(MultipartFile file) {
         try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
             Sheet sheet = workbook.getSheetAt(0);
@@ -298,6 +507,7 @@ public class ExportImportService {
             }
             
             // Save all entities
+            entityRepository.adoptCurrentVersions(entities);
             return entityRepository.saveAll(entities);
             
         } catch (IOException e) {
@@ -0,0 +1,199 @@
+package com.example.project1.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Writes stored files to the response with conditional and range request support.
+ * Single ranges and full bodies are handed to Tomcat's sendfile when the connector supports it,
+ * so the bytes never enter the JVM; otherwise, and for multi-range responses, they are copied
+ * with {@link FileChannel#transferTo}.
+ */
+@Service
+public class FileDownloadService {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CRLF = "\r\n";
+
+    /**
+     * Sends the file, answering 304/412 for conditional requests, 206 for satisfiable
+     * Range requests (multipart/byteranges for several ranges) and 416 otherwise.
+     */
+    public void send(Path file, String contentType, String downloadName,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        // Stored files are never rewritten in place, so size and mtime identify the content
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // Sets ETag and Last-Modified, and answers If-None-Match/If-Modified-Since (304)
+        // and If-Match/If-Unmodified-Since (412)
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + downloadName + "\"");
+        boolean headOnly = "HEAD".equals(request.getMethod());
+
+        List<HttpRange> ranges = requestedRanges(request, etag, lastModified);
+        if (ranges.isEmpty()) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!headOnly) {
+                sendRegion(file, 0, length, request, response);
+            }
+            return;
+        }
+
+        List<long[]> regions = toRegions(ranges, length);
+        if (regions == null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            long start = regions.get(0)[0];
+            long end = regions.get(0)[1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+            response.setContentLengthLong(end - start + 1);
+            if (!headOnly) {
+                sendRegion(file, start, end - start + 1, request, response);
+            }
+            return;
+        }
+
+        String boundary = UUID.randomUUID().toString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        if (headOnly) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (long[] region : regions) {
+                String partHeader = CRLF + "--" + boundary + CRLF
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(region[0], region[1], length) + CRLF + CRLF;
+                out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                transfer(channel, region[0], region[1] - region[0] + 1, target);
+            }
+            out.write((CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII));
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the requested ranges, or an empty list when the full body should be sent:
+     * no or malformed Range header, or an If-Range validator that no longer matches.
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return new ArrayList<>();
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            boolean matches;
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // If-Range requires a strong comparison
+                matches = ifRange.equals(etag);
+            } else {
+                long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+                matches = since != -1 && lastModified / 1000 == since / 1000;
+            }
+            if (!matches) {
+                return new ArrayList<>();
+            }
+        }
+
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Resolves ranges to inclusive [start, end] offsets.
+     * @return null if any range is unsatisfiable or the ranges add up to more than the file
+     */
+    private List<long[]> toRegions(List<HttpRange> ranges, long length) {
+        List<long[]> regions = new ArrayList<>();
+        long total = 0;
+        try {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                regions.add(new long[] {start, end});
+                total += end - start + 1;
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // Overlapping ranges must not amplify the response beyond the file itself
+        return total > length ? null : regions;
+    }
+
+    private void sendRegion(Path file, long start, long count, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the region with sendfile once the request completes
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+        response.flushBuffer();
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+            throws IOException {
+        while (count > 0) {
+            long transferred = channel.transferTo(position, count, target);
+            if (transferred <= 0) {
+                throw new IOException("File ended before the requested range was sent");
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    private static String contentRange(long start, long end, long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+}
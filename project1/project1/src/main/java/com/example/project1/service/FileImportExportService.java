@@ -1,7 +1,7 @@
 package com.example.project1.service;
 
+import com.example.project1.dto.CustomColumnDTO;
 import com.example.project1.dto.MyEntityDTO;
-import com.example.project1.model.CustomColumn;
 import com.example.project1.model.CustomColumnType;
 import com.example.project1.model.MyEntity;
 import com.opencsv.bean.CsvToBean;
@@ -27,6 +27,7 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
@@ -36,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,9 +45,12 @@ public class FileImportExportService {
 
     private final EntityService entityService;
 
+    private final XlsxStreamingReader xlsxReader;
+
     @Autowired
-    public FileImportExportService(EntityService entityService) {
+    public FileImportExportService(EntityService entityService, XlsxStreamingReader xlsxReader) {
         this.entityService = entityService;
+        this.xlsxReader = xlsxReader;
     }
 
     /**
@@ -161,71 +166,71 @@ public class FileImportExportService {
      */
     public List<MyEntity> importEntitiesFromExcel(MultipartFile file) throws IOException {
         List<MyEntity> entities = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Skip the header row (row 0)
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    MyEntityDTO dto = new MyEntityDTO();
-                      // ID column may be empty for new entities
-                    Cell idCell = row.getCell(0);
-                    if (idCell != null && idCell.getCellType() != org.apache.poi.ss.usermodel.CellType.BLANK) {
-                        try {
-                            dto.setId((long) idCell.getNumericCellValue());
-                        } catch (Exception e) {
-                            // Ignore ID if it's not a valid number
-                        }
-                    }
-                    
-                    // Name column
-                    Cell nameCell = row.getCell(1);
-                    if (nameCell != null) {
-                        dto.setName(nameCell.getStringCellValue());
-                    }
-                    
-                    // Description column
-                    Cell descCell = row.getCell(2);
-                    if (descCell != null) {
-                        dto.setDescription(descCell.getStringCellValue());
+        importEntitiesFromExcel(file, Integer.MAX_VALUE, entities::addAll);
+        return entities;
+    }
+
+    /**
+     * Import entities from Excel file, parsing the sheet with the SAX event model and
+     * handing entities to the consumer in batches of the given size as they are read.
+     */
+    public void importEntitiesFromExcel(MultipartFile file, int batchSize, Consumer<List<MyEntity>> consumer) throws IOException {
+        List<MyEntity> batch = new ArrayList<>();
+
+        try (InputStream in = file.getInputStream()) {
+            xlsxReader.read(in, (rowNum, cells) -> {
+                // Skip the header row (row 0)
+                if (rowNum == 0) {
+                    return;
+                }
+
+                MyEntityDTO dto = new MyEntityDTO();
+                // ID column may be empty for new entities
+                String idValue = cellAt(cells, 0);
+                if (!idValue.isEmpty()) {
+                    try {
+                        dto.setId(Long.parseLong(idValue));
+                    } catch (NumberFormatException e) {
+                        // Ignore ID if it's not a valid number
                     }
-                    
-                    // Custom columns
-                    Cell customColsCell = row.getCell(3);
-                    if (customColsCell != null) {
-                        String customColsStr = customColsCell.getStringCellValue();
-                        String[] customColsPairs = customColsStr.split(",");
-                        
-                        List<CustomColumn> customColumns = Arrays.stream(customColsPairs)
-                            .filter(pair -> pair.contains(":"))
-                            .map(pair -> {
-                                String[] parts = pair.trim().split(":");
-                                CustomColumn col = new CustomColumn();
-                                col.setName(parts[0].trim());
-                                col.setValue(parts.length > 1 ? parts[1].trim() : "");
-                                col.setColumnType(CustomColumnType.TEXT); // Default type
-                                return col;
-                            })
-                            .collect(Collectors.toList());
-                        
-                        dto.getCustomColumns().clear();
-                        customColumns.forEach(col -> {
-                            com.example.project1.dto.CustomColumnDTO colDto = new com.example.project1.dto.CustomColumnDTO();
-                            colDto.setName(col.getName());
-                            colDto.setValue(col.getValue());
-                            colDto.setColumnType(col.getColumnType());
+                }
+
+                // Name column
+                dto.setName(cellAt(cells, 1));
+
+                // Description column
+                dto.setDescription(cellAt(cells, 2));
+
+                // Custom columns
+                String customColsStr = cellAt(cells, 3);
+                if (!customColsStr.isEmpty()) {
+                    Arrays.stream(customColsStr.split(","))
+                        .filter(pair -> pair.contains(":"))
+                        .forEach(pair -> {
+                            String[] parts = pair.trim().split(":");
+                            CustomColumnDTO colDto = new CustomColumnDTO();
+                            colDto.setName(parts[0].trim());
+                            colDto.setValue(parts.length > 1 ? parts[1].trim() : "");
+                            colDto.setColumnType(CustomColumnType.TEXT); // Default type
                             dto.getCustomColumns().add(colDto);
                         });
-                    }
-                    
-                    entities.add(dto.toEntity());
                 }
-            }
+
+                batch.add(dto.toEntity());
+                if (batch.size() >= batchSize) {
+                    consumer.accept(new ArrayList<>(batch));
+                    batch.clear();
+                }
+            });
         }
-        
-        return entities;
+
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
+    private static String cellAt(List<String> cells, int index) {
+        return index < cells.size() ? cells.get(index) : "";
     }
     
     /**
@@ -1,66 +1,242 @@
 package com.example.project1.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.project1.model.StoredBlob;
+import com.example.project1.model.StoredFile;
+import com.example.project1.repository.StoredBlobRepository;
+import com.example.project1.repository.StoredFileRepository;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Stores uploaded files under ./uploads and indexes them in stored_files
+ * (size, content type, SHA-256 checksum and owner).
+ * Files live in a two-level hex fan-out so no directory grows too large:
+ * files/&lt;xx&gt;/&lt;yy&gt;/&lt;name&gt;, or in content-addressed mode (app.storage.content-addressed)
+ * blobs/&lt;xx&gt;/&lt;yy&gt;/&lt;sha256&gt; with each distinct content kept once and removed when
+ * its last name is deleted. Files from the old flat layout keep working until
+ * {@link #migrateFlatLayout()} has moved them.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Store and delete of the same blob are serialized so a delete cannot remove a blob being re-referenced
+    private static final int LOCK_STRIPES = 64;
+
     private final Path fileStorageLocation;
 
-    public FileStorageService() {
+    private final Path fileLocation;
+
+    private final Path blobLocation;
+
+    private final Path tempLocation;
+
+    private final Object[] blobLocks = new Object[LOCK_STRIPES];
+
+    @Value("${app.storage.content-addressed:false}")
+    private boolean contentAddressed;
+
+    @Value("${app.storage.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    private final StoredFileRepository storedFileRepository;
+
+    private final StoredBlobRepository storedBlobRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public FileStorageService(StoredFileRepository storedFileRepository, StoredBlobRepository storedBlobRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.storedFileRepository = storedFileRepository;
+        this.storedBlobRepository = storedBlobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.fileStorageLocation = Paths.get("./uploads")
                 .toAbsolutePath().normalize();
+        this.fileLocation = this.fileStorageLocation.resolve("files");
+        this.blobLocation = this.fileStorageLocation.resolve("blobs");
+        this.tempLocation = this.fileStorageLocation.resolve(".tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            blobLocks[i] = new Object();
+        }
 
         try {
             Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.fileLocation);
+            Files.createDirectories(this.blobLocation);
+            Files.createDirectories(this.tempLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
         }
     }
 
     public String storeFile(MultipartFile file) {
-        // Normalize file name
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        
-        // Generate unique file name to prevent duplicates
-        String fileExtension = "";
-        if (originalFileName.contains(".")) {
-            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
+        return storeFile(file, null);
+    }
+
+    /**
+     * Stores the upload and indexes it.
+     * @param owner username of the uploader, or null
+     * @return the public file name
+     */
+    public String storeFile(MultipartFile file, String owner) {
+        try (InputStream in = file.getInputStream()) {
+            return commit(spool(in), file.getOriginalFilename(), file.getContentType(), owner).getFileName();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
         }
-        String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
+    }
+
+    /**
+     * Upload content written to a temp file, with its size and SHA-256.
+     */
+    public static final class SpooledUpload {
+        private final Path temp;
+        private final long size;
+        private final String checksum;
 
+        private SpooledUpload(Path temp, long size, String checksum) {
+            this.temp = temp;
+            this.size = size;
+            this.checksum = checksum;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+
+    /**
+     * Copies the content to a temp file in the storage volume, hashing it on the way, so the
+     * checksum (and in content-addressed mode the blob) is known before the final write.
+     */
+    public SpooledUpload spool(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tempLocation, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = Files.copy(new DigestInputStream(content, digest), temp, StandardCopyOption.REPLACE_EXISTING);
+            return new SpooledUpload(temp, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+
+    /**
+     * Path of a work file in the storage volume's temp directory, so it can later be moved
+     * into the store without a copy.
+     */
+    public Path tempPath(String name) {
+        Path path = tempLocation.resolve(name).normalize();
+        if (!tempLocation.equals(path.getParent())) {
+            throw new IllegalArgumentException("Invalid temp file name " + name);
+        }
+        return path;
+    }
+
+    /**
+     * Takes over a file already written to the temp directory (see {@link #tempPath}),
+     * computing its size and SHA-256 with a single read.
+     */
+    public SpooledUpload adopt(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return new SpooledUpload(file, Files.size(file), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Moves spooled content into the store under a new public name and indexes it.
+     * The temp file is removed in every case.
+     */
+    public StoredFile commit(SpooledUpload upload, String originalName, String declaredContentType, String owner)
+            throws IOException {
         try {
+            // Normalize file name
+            String originalFileName = StringUtils.cleanPath(originalName != null ? originalName : "");
+
+            // Generate unique file name to prevent duplicates
+            String fileExtension = "";
+            if (originalFileName.contains(".")) {
+                fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
+            }
+            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
+
             // Check if the file's name contains invalid characters
-            if (uniqueFileName.contains("..")) {
+            if (uniqueFileName.contains("..") || uniqueFileName.contains("/")) {
                 throw new RuntimeException("Sorry! Filename contains invalid path sequence " + uniqueFileName);
             }
 
-            // Copy file to the target location (Replacing existing file with the same name)
-            Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            String contentType = contentTypeOf(uniqueFileName, declaredContentType);
+            if (contentAddressed) {
+                StoredFile storedFile = new StoredFile(uniqueFileName, upload.checksum, originalFileName,
+                        contentType, upload.size, upload.checksum, owner);
+                storeBlobReference(upload.temp, storedFile);
+                return storedFile;
+            }
+            moveIntoPlace(upload.temp, shardedPath(fileLocation, nameShard(uniqueFileName), uniqueFileName));
+            return storedFileRepository.save(new StoredFile(uniqueFileName, null, originalFileName,
+                    contentType, upload.size, upload.checksum, owner));
+        } finally {
+            Files.deleteIfExists(upload.temp);
+        }
+    }
 
-            return uniqueFileName;
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + uniqueFileName + ". Please try again!", ex);
+    /**
+     * References the existing blob with the file's hash, or moves the spooled temp file into place as a new blob.
+     */
+    private void storeBlobReference(Path temp, StoredFile storedFile) {
+        String hash = storedFile.getBlobHash();
+        synchronized (lockFor(hash)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (storedBlobRepository.incrementRefCount(hash) == 0) {
+                    moveIntoPlace(temp, blobPath(hash));
+                    storedBlobRepository.save(new StoredBlob(hash, storedFile.getSize()));
+                }
+                storedFileRepository.save(storedFile);
+            });
         }
     }
 
     public Resource loadFileAsResource(String fileName) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+            Path filePath = getFilePath(fileName);
             Resource resource = new UrlResource(filePath.toUri());
             if (resource.exists()) {
                 return resource;
@@ -71,13 +247,191 @@ public class FileStorageService {
             throw new RuntimeException("File not found " + fileName, ex);
         }
     }
-    
+
+    /**
+     * Returns the index entry of a stored file; files from the flat layout that have not been
+     * migrated yet have none.
+     */
+    public Optional<StoredFile> findStoredFile(String fileName) {
+        return storedFileRepository.findById(fileName);
+    }
+
+    /**
+     * Resolves a stored file name to its path, refusing names that point outside the storage directory.
+     */
+    public Path getFilePath(String fileName) {
+        Optional<StoredFile> stored = findStoredFile(fileName);
+        return stored.isPresent() ? getFilePath(stored.get()) : flatFilePath(fileName);
+    }
+
+    public Path getFilePath(StoredFile storedFile) {
+        Path filePath = storedFile.getBlobHash() != null
+                ? blobPath(storedFile.getBlobHash())
+                : shardedPath(fileLocation, nameShard(storedFile.getFileName()), storedFile.getFileName());
+        if (!Files.isRegularFile(filePath)) {
+            throw new RuntimeException("File not found " + storedFile.getFileName());
+        }
+        return filePath;
+    }
+
     public boolean deleteFile(String fileName) {
+        Optional<StoredFile> stored = findStoredFile(fileName);
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            return Files.deleteIfExists(filePath);
+            if (stored.isEmpty()) {
+                Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+                if (!this.fileStorageLocation.equals(filePath.getParent())) {
+                    return false;
+                }
+                return Files.deleteIfExists(filePath);
+            }
+            if (stored.get().getBlobHash() != null) {
+                return deleteBlobReference(stored.get());
+            }
+            storedFileRepository.delete(stored.get());
+            return Files.deleteIfExists(shardedPath(fileLocation, nameShard(fileName), fileName));
         } catch (IOException ex) {
             throw new RuntimeException("Could not delete file " + fileName, ex);
         }
     }
+
+    /**
+     * Drops one name of a blob; the blob itself goes when no name refers to it any more.
+     */
+    private boolean deleteBlobReference(StoredFile storedFile) throws IOException {
+        String hash = storedFile.getBlobHash();
+        synchronized (lockFor(hash)) {
+            Boolean lastReference = transactionTemplate.execute(status -> {
+                storedFileRepository.delete(storedFile);
+                storedBlobRepository.decrementRefCount(hash);
+                return storedBlobRepository.deleteIfUnreferenced(hash) > 0;
+            });
+            if (Boolean.TRUE.equals(lastReference)) {
+                Files.deleteIfExists(blobPath(hash));
+            }
+        }
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            try {
+                migrateFlatLayout();
+            } catch (IOException ex) {
+                logger.error("Could not migrate flat upload directories", ex);
+            }
+        }
+    }
+
+    /**
+     * Moves files from the old flat layout into the sharded one: files directly under ./uploads
+     * are indexed (size, checksum, content type guessed from the name; no owner) and moved under
+     * files/, and blobs directly under blobs/ are moved into their fan-out directories.
+     * Each file is indexed before it is moved, and the row is removed again if the move fails.
+     * Safe to run repeatedly; already migrated files are skipped.
+     * @return the number of files moved
+     */
+    public int migrateFlatLayout() throws IOException {
+        int migrated = 0;
+        try (DirectoryStream<Path> flatFiles = Files.newDirectoryStream(fileStorageLocation, Files::isRegularFile)) {
+            for (Path flat : flatFiles) {
+                String fileName = flat.getFileName().toString();
+                Path target = shardedPath(fileLocation, nameShard(fileName), fileName);
+                if (storedFileRepository.existsById(fileName)) {
+                    // Indexed by a run that stopped before the move; finish it
+                    if (!Files.exists(target)) {
+                        moveIntoPlace(flat, target);
+                        migrated++;
+                    }
+                    continue;
+                }
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(Files.newInputStream(flat), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                long size = Files.size(flat);
+                // Indexed before the move, so a moved file is never left without a row
+                storedFileRepository.save(new StoredFile(fileName, null, fileName, contentTypeOf(fileName, null),
+                        size, HexFormat.of().formatHex(digest.digest()), null));
+                try {
+                    moveIntoPlace(flat, target);
+                } catch (RuntimeException ex) {
+                    storedFileRepository.deleteById(fileName);
+                    throw ex;
+                }
+                migrated++;
+            }
+        }
+        try (DirectoryStream<Path> flatBlobs = Files.newDirectoryStream(blobLocation, Files::isRegularFile)) {
+            for (Path flat : flatBlobs) {
+                String hash = flat.getFileName().toString();
+                if (hash.length() != 64) {
+                    continue;
+                }
+                synchronized (lockFor(hash)) {
+                    moveIntoPlace(flat, blobPath(hash));
+                }
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Migrated {} uploaded files to the sharded layout", migrated);
+        }
+        return migrated;
+    }
+
+    private Path flatFilePath(String fileName) {
+        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!this.fileStorageLocation.equals(filePath.getParent()) || !Files.isRegularFile(filePath)) {
+            throw new RuntimeException("File not found " + fileName);
+        }
+        return filePath;
+    }
+
+    private void moveIntoPlace(Path source, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            // A blob file without a row is left over from a failed store; replace it
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + target.getFileName(), ex);
+        }
+    }
+
+    private Path blobPath(String hash) {
+        return shardedPath(blobLocation, hash, hash);
+    }
+
+    // Two levels of two hex characters each: 65536 leaf directories
+    private static Path shardedPath(Path base, String shardKey, String fileName) {
+        return base.resolve(shardKey.substring(0, 2)).resolve(shardKey.substring(2, 4)).resolve(fileName);
+    }
+
+    // Public names are not necessarily hex, so shard them by a hash of the name
+    private static String nameShard(String fileName) {
+        return String.format("%08x", fileName.hashCode());
+    }
+
+    private static String contentTypeOf(String fileName, String declaredContentType) {
+        Optional<MediaType> byName = MediaTypeFactory.getMediaType(fileName);
+        if (byName.isPresent()) {
+            return byName.get().toString();
+        }
+        // The declared type comes from the client; only keep it if it fits the index column
+        return StringUtils.hasText(declaredContentType) && declaredContentType.length() <= 100
+                ? declaredContentType
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private Object lockFor(String hash) {
+        return blobLocks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,243 @@
+package com.example.project1.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.project1.model.ImportJob;
+import com.example.project1.repository.ImportJobRepository;
+
+/**
+ * Runs CSV and Excel imports in the background on a bounded worker pool.
+ * Uploads are spooled to a temp file, a job row is created and the request returns
+ * immediately; workers update the job's progress counters in the database as they go.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    // Only the first rejection reasons are kept on the job
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    // Minimum time between progress writes to the job table
+    private static final long PROGRESS_SAVE_INTERVAL_MS = 1000;
+
+    @Value("${app.import.jobs.workers:2}")
+    private int workers;
+
+    @Value("${app.import.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    private final ImportJobRepository jobRepository;
+
+    private final BulkImportService bulkImportService;
+
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    public ImportJobService(ImportJobRepository jobRepository, BulkImportService bulkImportService) {
+        this.jobRepository = jobRepository;
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Jobs left queued or running by a previous process can never finish; mark them failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        List<ImportJob> interrupted = jobRepository.findByStatusIn(
+                Arrays.asList(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING));
+        for (ImportJob job : interrupted) {
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setErrorMessage("Interrupted by server restart");
+            job.setFinishedDate(LocalDateTime.now());
+        }
+        jobRepository.saveAll(interrupted);
+    }
+
+    /**
+     * Queues an import of the uploaded file.
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public ImportJob submit(MultipartFile file, ImportJob.Format format, String submittedBy) throws IOException {
+        Path spooled = Files.createTempFile("import-job-", format == ImportJob.Format.CSV ? ".csv" : ".xlsx");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return submit(spooled, file.getOriginalFilename(), format, submittedBy);
+    }
+
+    /**
+     * Queues an import of a file already on disk, e.g. an assembled chunked upload.
+     * The job takes ownership of the file and deletes it when done, or right away if rejected.
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public ImportJob submit(Path spooled, String fileName, ImportJob.Format format, String submittedBy) throws IOException {
+        ImportJob job = jobRepository.save(new ImportJob(UUID.randomUUID().toString(),
+                fileName, format, submittedBy, Files.size(spooled)));
+        try {
+            executor.execute(() -> run(job, spooled));
+        } catch (RejectedExecutionException e) {
+            jobRepository.delete(job);
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> findById(String id) {
+        return jobRepository.findById(id);
+    }
+
+    private void run(ImportJob job, Path spooled) {
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setStartedDate(LocalDateTime.now());
+        jobRepository.save(job);
+
+        JobProgress progress = new JobProgress(job);
+        try {
+            if (job.getFormat() == ImportJob.Format.CSV) {
+                try (InputStream in = new CountingInputStream(Files.newInputStream(spooled), job)) {
+                    bulkImportService.importCsv(in, progress);
+                }
+            } else {
+                bulkImportService.importExcel(spooled, progress);
+            }
+            job.setBytesRead(job.getBytesTotal());
+            job.setStatus(ImportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            logger.error("Import job {} failed", job.getId(), e);
+            job.setStatus(ImportJob.Status.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+        } finally {
+            job.setFinishedDate(LocalDateTime.now());
+            jobRepository.save(job);
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                logger.warn("Could not delete spooled import file {}", spooled, e);
+            }
+        }
+    }
+
+    /**
+     * Copies import progress onto the job and persists it at most once per interval.
+     * Only the worker thread running the job touches it.
+     */
+    private class JobProgress implements BulkImportService.ProgressListener {
+        private final ImportJob job;
+        private final StringBuilder rejections = new StringBuilder();
+        private long lastSave;
+
+        JobProgress(ImportJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void rowParsed(long rowNumber) {
+            job.setRowsParsed(rowNumber);
+        }
+
+        @Override
+        public void rowRejected(long rowNumber, String reason) {
+            job.setRowsRejected(job.getRowsRejected() + 1);
+            if (job.getRowsRejected() <= MAX_REPORTED_REJECTIONS) {
+                if (rejections.length() > 0) {
+                    rejections.append('\n');
+                }
+                rejections.append("Row ").append(rowNumber).append(": ").append(reason.replace('\n', ' '));
+                job.setRejections(rejections.toString());
+            }
+            saveThrottled();
+        }
+
+        @Override
+        public void chunkWritten(int rows) {
+            job.setRowsWritten(job.getRowsWritten() + rows);
+            saveThrottled();
+        }
+
+        private void saveThrottled() {
+            long now = System.currentTimeMillis();
+            if (now - lastSave >= PROGRESS_SAVE_INTERVAL_MS) {
+                jobRepository.save(job);
+                lastSave = now;
+            }
+        }
+    }
+
+    /**
+     * Records how much of the spooled input has been consumed, for the ETA estimate.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final ImportJob job;
+
+        CountingInputStream(InputStream in, ImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                job.setBytesRead(job.getBytesRead() + 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                job.setBytesRead(job.getBytesRead() + n);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.project1.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Minimal RFC 6902 JSON Patch support for revision deltas: {@link #diff} produces
+ * add/remove/replace operations, descending into objects and arrays so that changing one
+ * custom column does not rewrite the others, and {@link #apply} replays them.
+ */
+public final class JsonPatch {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private JsonPatch() {}
+
+    /**
+     * @return the operations that turn source into target
+     */
+    public static ArrayNode diff(JsonNode source, JsonNode target) {
+        ArrayNode operations = NODES.arrayNode();
+        diff("", source, target, operations);
+        return operations;
+    }
+
+    /**
+     * Applies the operations to a copy of the document.
+     * @throws IllegalArgumentException if an operation does not fit the document
+     */
+    public static JsonNode apply(JsonNode document, JsonNode operations) {
+        // The root is wrapped so that a root-level replace has a parent to write into
+        ObjectNode holder = NODES.objectNode();
+        holder.set("", document.deepCopy());
+        for (JsonNode operation : operations) {
+            String op = operation.path("op").asText();
+            List<String> path = parsePath(operation.path("path").asText());
+            path.add(0, "");
+            JsonNode parent = navigate(holder, path.subList(0, path.size() - 1));
+            String last = path.get(path.size() - 1);
+            switch (op) {
+                case "add":
+                    add(parent, last, operation.get("value").deepCopy());
+                    break;
+                case "remove":
+                    remove(parent, last);
+                    break;
+                case "replace":
+                    remove(parent, last);
+                    add(parent, last, operation.get("value").deepCopy());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported patch operation " + op);
+            }
+        }
+        return holder.get("");
+    }
+
+    private static void diff(String path, JsonNode source, JsonNode target, ArrayNode operations) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (source.isObject() && target.isObject()) {
+            Iterator<String> names = source.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                if (!target.has(name)) {
+                    operations.addObject().put("op", "remove").put("path", path + "/" + escape(name));
+                }
+            }
+            Iterator<String> targetNames = target.fieldNames();
+            while (targetNames.hasNext()) {
+                String name = targetNames.next();
+                String childPath = path + "/" + escape(name);
+                if (!source.has(name)) {
+                    operations.addObject().put("op", "add").put("path", childPath).set("value", target.get(name));
+                } else {
+                    diff(childPath, source.get(name), target.get(name), operations);
+                }
+            }
+            return;
+        }
+        if (source.isArray() && target.isArray()) {
+            int common = Math.min(source.size(), target.size());
+            for (int i = 0; i < common; i++) {
+                diff(path + "/" + i, source.get(i), target.get(i), operations);
+            }
+            // Remove from the end so the indexes of the remaining elements stay valid
+            for (int i = source.size() - 1; i >= common; i--) {
+                operations.addObject().put("op", "remove").put("path", path + "/" + i);
+            }
+            for (int i = common; i < target.size(); i++) {
+                operations.addObject().put("op", "add").put("path", path + "/-").set("value", target.get(i));
+            }
+            return;
+        }
+        operations.addObject().put("op", "replace").put("path", path).set("value", target);
+    }
+
+    private static JsonNode navigate(JsonNode node, List<String> path) {
+        for (String token : path) {
+            node = node.isArray() ? node.get(index(node, token)) : node.get(token);
+            if (node == null) {
+                throw new IllegalArgumentException("Patch path not found: " + String.join("/", path));
+            }
+        }
+        return node;
+    }
+
+    private static void add(JsonNode parent, String token, JsonNode value) {
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(token, value);
+        } else if (parent.isArray()) {
+            ArrayNode array = (ArrayNode) parent;
+            if ("-".equals(token)) {
+                array.add(value);
+            } else {
+                int index = Integer.parseInt(token);
+                if (index < 0 || index > array.size()) {
+                    throw new IllegalArgumentException("Patch index out of range: " + token);
+                }
+                array.insert(index, value);
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot add to a value node");
+        }
+    }
+
+    private static void remove(JsonNode parent, String token) {
+        if (parent.isObject()) {
+            if (((ObjectNode) parent).remove(token) == null) {
+                throw new IllegalArgumentException("Patch path not found: " + token);
+            }
+        } else if (parent.isArray()) {
+            ((ArrayNode) parent).remove(index(parent, token));
+        } else {
+            throw new IllegalArgumentException("Cannot remove from a value node");
+        }
+    }
+
+    private static int index(JsonNode array, String token) {
+        try {
+            int index = Integer.parseInt(token);
+            if (index < 0 || index >= array.size()) {
+                throw new IllegalArgumentException("Patch index out of range: " + token);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid array index in patch path: " + token, e);
+        }
+    }
+
+    private static List<String> parsePath(String pointer) {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (!pointer.startsWith("/")) {
+            throw new IllegalArgumentException("Invalid patch path: " + pointer);
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+}
@@ -18,14 +18,11 @@ import com.example.project1.model.MyEntity;
 import com.example.project1.repository.EntityRepository;
 
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperExportManager;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
-import net.sf.jasperreports.engine.design.JasperDesign;
-import net.sf.jasperreports.engine.xml.JRXmlLoader;
 
 @Service
 public class ReportService {
@@ -35,6 +32,9 @@ public class ReportService {
     @Autowired
     private EntityRepository entityRepository;
     
+    @Autowired
+    private ReportTemplateCache reportTemplateCache;
+    
     /**
      * Generates a PDF report of all entities
      * @return ByteArrayInputStream containing the PDF report
@@ -43,11 +43,8 @@ public class ReportService {
         try {
             List<MyEntity> entities = entityRepository.findAll();
             
-            // Load the JRXML template
-            JasperDesign jasperDesign = JRXmlLoader.load(getClass().getResourceAsStream("/reports/entities_report.jrxml"));
-            
-            // Compile the report template
-            JasperReport jasperReport = JasperCompileManager.compileReport(jasperDesign);
+            // Get the compiled report template
+            JasperReport jasperReport = reportTemplateCache.get("entities_report");
             
             // Create data source
             JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(entities);
@@ -73,14 +70,12 @@ public class ReportService {
      * @param reportName The name of the report template
      * @param parameters Parameters for the report
      * @return ByteArrayInputStream containing the PDF report
+     * @throws IllegalArgumentException if the report name is invalid
      */
     public ByteArrayInputStream generateCustomReport(String reportName, Map<String, Object> parameters) {
         try {
-            // Load the custom JRXML template
-            JasperDesign jasperDesign = JRXmlLoader.load(getClass().getResourceAsStream("/reports/" + reportName + ".jrxml"));
-            
-            // Compile the report template
-            JasperReport jasperReport = JasperCompileManager.compileReport(jasperDesign);
+            // Get the compiled custom report template
+            JasperReport jasperReport = reportTemplateCache.get(reportName);
             
             // Create data source - this could be customized based on reportName
             List<MyEntity> data = entityRepository.findAll();
@@ -122,11 +117,8 @@ public class ReportService {
                 })
                 .collect(Collectors.toList());
             
-            // Load the report template
-            JasperDesign jasperDesign = JRXmlLoader.load(getClass().getResourceAsStream("/reports/entities_report.jrxml"));
-            
-            // Compile the report template
-            JasperReport jasperReport = JasperCompileManager.compileReport(jasperDesign);
+            // Get the compiled report template
+            JasperReport jasperReport = reportTemplateCache.get("entities_report");
             
             // Create data source
             JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(filteredEntities);
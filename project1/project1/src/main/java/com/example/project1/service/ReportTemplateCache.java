@@ -0,0 +1,152 @@
+package com.example.project1.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * Cache of compiled JasperReports templates, keyed by report name.
+ * At startup it loads the .jasper files precompiled by the Maven build; a template is only
+ * compiled at runtime when no precompiled version exists. With app.reports.reload-templates
+ * (for development) every lookup re-reads the .jrxml and recompiles it when its SHA-256 has
+ * changed; otherwise a loaded template is returned as is.
+ */
+@Component
+public class ReportTemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTemplateCache.class);
+
+    private static final String REPORTS_LOCATION = "/reports/";
+
+    // Report names are used to build classpath locations, so keep them to plain file names
+    private static final Pattern REPORT_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    @Value("${app.reports.reload-templates:false}")
+    private boolean reloadTemplates;
+
+    private final ConcurrentMap<String, CompiledReport> cache = new ConcurrentHashMap<>();
+
+    private static class CompiledReport {
+        private final String sourceHash;
+        private final JasperReport report;
+
+        CompiledReport(String sourceHash, JasperReport report) {
+            this.sourceHash = sourceHash;
+            this.report = report;
+        }
+    }
+
+    /**
+     * Loads every template under /reports so the first request does not pay for it.
+     */
+    @PostConstruct
+    public void preload() {
+        try {
+            Resource[] templates = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:" + REPORTS_LOCATION + "*.jrxml");
+            for (Resource template : templates) {
+                String fileName = template.getFilename();
+                if (fileName == null) {
+                    continue;
+                }
+                String reportName = fileName.substring(0, fileName.length() - ".jrxml".length());
+                try {
+                    get(reportName);
+                } catch (JRException | IllegalArgumentException e) {
+                    logger.warn("Could not preload report template {}: {}", reportName, e.getMessage());
+                }
+            }
+            logger.info("Preloaded {} report templates", cache.size());
+        } catch (IOException e) {
+            logger.warn("Could not scan report templates: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the compiled template for the given report name.
+     * @throws IllegalArgumentException if the name is not a plain file name
+     * @throws JRException if the template does not exist or fails to compile
+     */
+    public JasperReport get(String reportName) throws JRException {
+        if (reportName == null || !REPORT_NAME.matcher(reportName).matches()) {
+            throw new IllegalArgumentException("Invalid report name: " + reportName);
+        }
+
+        CompiledReport cached = cache.get(reportName);
+        if (cached != null && !reloadTemplates) {
+            return cached.report;
+        }
+
+        byte[] source = readResource(REPORTS_LOCATION + reportName + ".jrxml");
+        if (source == null) {
+            throw new JRException("Report template not found: " + reportName);
+        }
+        String sourceHash = sha256(source);
+        if (cached != null && cached.sourceHash.equals(sourceHash)) {
+            return cached.report;
+        }
+
+        // A precompiled .jasper is only trusted the first time, when it was built from this source
+        JasperReport report = cached == null ? loadPrecompiled(reportName) : null;
+        if (report == null) {
+            long start = System.currentTimeMillis();
+            try (InputStream in = new ByteArrayInputStream(source)) {
+                report = JasperCompileManager.compileReport(in);
+            } catch (IOException e) {
+                throw new JRException("Could not read report template: " + reportName, e);
+            }
+            logger.info("Compiled report template {} in {} ms", reportName, System.currentTimeMillis() - start);
+        }
+
+        cache.put(reportName, new CompiledReport(sourceHash, report));
+        return report;
+    }
+
+    private JasperReport loadPrecompiled(String reportName) {
+        try (InputStream in = getClass().getResourceAsStream(REPORTS_LOCATION + reportName + ".jasper")) {
+            if (in == null) {
+                return null;
+            }
+            return (JasperReport) JRLoader.loadObject(in);
+        } catch (JRException | IOException | ClassCastException e) {
+            logger.warn("Ignoring unreadable precompiled report {}: {}", reportName, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] readResource(String location) throws JRException {
+        try (InputStream in = getClass().getResourceAsStream(location)) {
+            return in != null ? in.readAllBytes() : null;
+        } catch (IOException e) {
+            throw new JRException("Could not read " + location, e);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
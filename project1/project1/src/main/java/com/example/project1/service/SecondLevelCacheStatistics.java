@@ -0,0 +1,63 @@
+package com.example.project1.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.project1.config.SecondLevelCacheConfig;
+
+/**
+ * Reads the JCache statistics MBeans of the second-level cache regions.
+ */
+@Component
+public class SecondLevelCacheStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCacheStatistics.class);
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Hit, miss, put, removal and eviction counts plus hit ratio per region, since startup.
+     */
+    public Map<String, Map<String, Long>> getStatistics() {
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+        for (String region : SecondLevelCacheConfig.regionNames()) {
+            try {
+                // Registered by the cache manager once statistics are enabled for the region
+                Set<ObjectName> names = mBeanServer.queryNames(
+                        new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+                if (names.isEmpty()) {
+                    continue;
+                }
+                ObjectName name = names.iterator().next();
+                long hits = attribute(name, "CacheHits");
+                long misses = attribute(name, "CacheMisses");
+                Map<String, Long> values = new LinkedHashMap<>();
+                values.put("hits", hits);
+                values.put("misses", misses);
+                values.put("puts", attribute(name, "CachePuts"));
+                values.put("removals", attribute(name, "CacheRemovals"));
+                values.put("evictions", attribute(name, "CacheEvictions"));
+                values.put("hitRatioPercent", hits + misses == 0 ? 0 : hits * 100 / (hits + misses));
+                statistics.put(region, values);
+            } catch (JMException e) {
+                logger.warn("Could not read cache statistics of region {}", region, e);
+            }
+        }
+        return statistics;
+    }
+
+    private long attribute(ObjectName name, String attribute) throws JMException {
+        Object value = mBeanServer.getAttribute(name, attribute);
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.project1.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import com.example.project1.dto.UploadSessionRequest;
+import com.example.project1.model.ImportJob;
+import com.example.project1.model.StoredFile;
+import com.example.project1.model.UploadChunk;
+import com.example.project1.model.UploadSession;
+import com.example.project1.repository.UploadChunkRepository;
+import com.example.project1.repository.UploadSessionRepository;
+
+/**
+ * Resumable uploads in fixed-size chunks.
+ * Each chunk is written at its own offset of a single work file in the storage volume's
+ * temp directory, so chunks may arrive in any order, in parallel, and be re-sent after a
+ * failure without touching the rest. A re-sent chunk loses its record before its bytes are
+ * overwritten and is only recorded again once its length and optional SHA-256 match, so a
+ * failed retry leaves the chunk missing rather than silently corrupted. Completing the session hands the assembled file to {@link FileStorageService}
+ * or to an import job without copying it. Completing first closes the session and then waits
+ * for chunk writes already in progress, so the file cannot change once it is being verified.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    @Value("${app.upload.session.default-chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${app.upload.session.min-chunk-size:1048576}")
+    private int minChunkSize;
+
+    @Value("${app.upload.session.max-chunk-size:67108864}")
+    private int maxChunkSize;
+
+    @Value("${app.upload.session.max-chunks:16384}")
+    private int maxChunks;
+
+    @Value("${app.upload.session.complete-wait-ms:60000}")
+    private long completeWaitMs;
+
+    @Value("${app.upload.session.max-file-size:10737418240}")
+    private long maxFileSize;
+
+    @Value("${app.upload.session.ttl-hours:24}")
+    private long ttlHours;
+
+    private final UploadSessionRepository sessionRepository;
+
+    private final UploadChunkRepository chunkRepository;
+
+    private final FileStorageService fileStorageService;
+
+    private final ImportJobService importJobService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Chunk writes in progress per session id
+    private final ConcurrentMap<String, Integer> activeWrites = new ConcurrentHashMap<>();
+
+    // "sessionId:index" of every chunk being written, so two uploads of one chunk cannot interleave
+    private final Set<String> writingChunks = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UploadSessionService(UploadSessionRepository sessionRepository, UploadChunkRepository chunkRepository,
+                                FileStorageService fileStorageService, ImportJobService importJobService,
+                                PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.chunkRepository = chunkRepository;
+        this.fileStorageService = fileStorageService;
+        this.importJobService = importJobService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sessions a previous process was completing are reopened so the client can retry.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reopenInterruptedSessions() {
+        transactionTemplate.executeWithoutResult(status ->
+                sessionRepository.updateAllStatus(UploadSession.Status.COMPLETING, UploadSession.Status.OPEN));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the sizes or the target do not fit the limits
+     */
+    public UploadSession create(UploadSessionRequest request, String owner) {
+        String fileName = StringUtils.cleanPath(request.getFileName());
+        if (fileName.contains("..") || fileName.contains("/")) {
+            throw new IllegalArgumentException("Invalid file name " + request.getFileName());
+        }
+        long totalSize = request.getTotalSize();
+        if (totalSize > maxFileSize) {
+            throw new IllegalArgumentException("File exceeds the maximum size of " + maxFileSize + " bytes");
+        }
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize;
+        if (chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk size exceeds the maximum of " + maxChunkSize + " bytes");
+        }
+        // Only a file that fits in one chunk may use chunks below the minimum
+        if (chunkSize < minChunkSize && chunkSize < totalSize) {
+            throw new IllegalArgumentException("Chunk size must be at least " + minChunkSize + " bytes");
+        }
+        long totalChunks = (totalSize + chunkSize - 1) / chunkSize;
+        if (totalChunks > maxChunks) {
+            throw new IllegalArgumentException("File would need " + totalChunks + " chunks; at most " + maxChunks
+                    + " are allowed, use larger chunks");
+        }
+        UploadSession.Target target = request.getTarget() != null ? request.getTarget() : UploadSession.Target.FILE;
+        String lowerName = fileName.toLowerCase();
+        if (target == UploadSession.Target.IMPORT_CSV && !lowerName.endsWith(".csv")) {
+            throw new IllegalArgumentException("Please upload a CSV file");
+        }
+        if (target == UploadSession.Target.IMPORT_EXCEL && !lowerName.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("Please upload an .xlsx file");
+        }
+
+        String sha256 = request.getSha256() != null ? request.getSha256().toLowerCase() : null;
+        return sessionRepository.save(new UploadSession(UUID.randomUUID().toString(), fileName,
+                request.getContentType(), target, totalSize, chunkSize, sha256, owner, expiry()));
+    }
+
+    /**
+     * Finds a session visible to the caller; other users' sessions are reported as absent.
+     */
+    public Optional<UploadSession> find(String id, String username, boolean admin) {
+        return sessionRepository.findById(id)
+                .filter(session -> admin || (session.getOwner() != null && session.getOwner().equals(username)));
+    }
+
+    public List<Integer> receivedChunks(UploadSession session) {
+        return chunkRepository.findChunkIndexes(session.getId());
+    }
+
+    /**
+     * Writes one chunk at its offset of the work file and records it.
+     * Re-sending a chunk overwrites it, so a failed or corrupted chunk is simply retried.
+     * @param expectedSha256 hex SHA-256 of the chunk, or null to skip the check
+     * @throws IllegalArgumentException if the index, length or checksum is wrong; the chunk
+     *         then counts as missing until it is sent again
+     * @throws IllegalStateException if the session is no longer open or the same chunk is
+     *         being uploaded by another request
+     */
+    public void putChunk(UploadSession session, int index, InputStream content, String expectedSha256)
+            throws IOException {
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getTotalChunks() - 1));
+        }
+        beginWrite(session.getId());
+        try {
+            // Read after registering the write: either complete() waits for this write or this write sees it
+            UploadSession.Status status = sessionRepository.findStatusById(session.getId())
+                    .orElseThrow(() -> new IllegalStateException("Upload session no longer exists"));
+            if (status != UploadSession.Status.OPEN) {
+                throw new IllegalStateException("Upload session is " + status);
+            }
+            String chunkKey = session.getId() + ":" + index;
+            if (!writingChunks.add(chunkKey)) {
+                throw new IllegalStateException("Chunk " + index + " is already being uploaded");
+            }
+            try {
+                writeChunk(session, index, content, expectedSha256);
+            } finally {
+                writingChunks.remove(chunkKey);
+            }
+        } finally {
+            endWrite(session.getId());
+        }
+    }
+
+    private void writeChunk(UploadSession session, int index, InputStream content, String expectedSha256)
+            throws IOException {
+        // Forgotten before its bytes are touched; recorded again only once they verify
+        transactionTemplate.executeWithoutResult(status ->
+                chunkRepository.deleteBySessionIdAndChunkIndex(session.getId(), index));
+
+        long position = session.getChunkStart(index);
+        long length = session.getChunkLength(index);
+        MessageDigest digest = sha256();
+        long written = 0;
+        boolean overlong;
+        try (InputStream in = new DigestInputStream(content, digest);
+             FileChannel channel = FileChannel.open(workFile(session),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(in);
+            // transferFrom on a stream channel returns 0 once the stream is exhausted
+            while (written < length) {
+                long transferred = channel.transferFrom(source, position + written, length - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            overlong = written == length && in.read() != -1;
+        }
+        if (written != length || overlong) {
+            throw new IllegalArgumentException("Chunk " + index + " must be exactly " + length + " bytes");
+        }
+
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(checksum)) {
+            throw new IllegalArgumentException("Chunk " + index + " does not match its SHA-256 checksum");
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                chunkRepository.save(new UploadChunk(session.getId(), index, length, checksum));
+                sessionRepository.extendExpiry(session.getId(), expiry());
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Recorded by a retry handled by another instance; only verified chunks are recorded
+            logger.debug("Chunk {} of upload {} was recorded concurrently", index, session.getId());
+        }
+    }
+
+    /**
+     * Verifies that every chunk is present (and the whole-file checksum, if declared),
+     * then stores the file or queues the import.
+     * @throws IllegalStateException if chunks are missing, the checksum fails or the session is not open
+     * @throws RejectedExecutionException if the import queue is full; the session stays open for a retry
+     */
+    public UploadSession complete(UploadSession session) throws IOException {
+        if (!transactionTemplate.execute(status -> sessionRepository.updateStatus(session.getId(),
+                UploadSession.Status.OPEN, UploadSession.Status.COMPLETING) == 1)) {
+            throw new IllegalStateException("Upload session is not open");
+        }
+
+        boolean completed = false;
+        try {
+            awaitChunkWrites(session.getId());
+            int received = chunkRepository.findChunkIndexes(session.getId()).size();
+            if (received != session.getTotalChunks()) {
+                throw new IllegalStateException((session.getTotalChunks() - received) + " of "
+                        + session.getTotalChunks() + " chunks are missing");
+            }
+
+            Path workFile = workFile(session);
+            try (FileChannel channel = FileChannel.open(workFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(session.getTotalSize());
+            }
+
+            FileStorageService.SpooledUpload assembled = fileStorageService.adopt(workFile);
+            if (assembled.getSize() != session.getTotalSize()) {
+                throw new IllegalStateException("Assembled file is " + assembled.getSize() + " bytes, expected "
+                        + session.getTotalSize());
+            }
+            if (session.getSha256() != null && !session.getSha256().equals(assembled.getChecksum())) {
+                // Some chunk was corrupted on the way in without being detected; all of them must be re-sent
+                transactionTemplate.executeWithoutResult(status -> chunkRepository.deleteBySessionId(session.getId()));
+                throw new IllegalStateException("Assembled file does not match its SHA-256 checksum; "
+                        + "all chunks must be uploaded again");
+            }
+
+            if (session.getTarget() == UploadSession.Target.FILE) {
+                StoredFile stored;
+                try {
+                    stored = fileStorageService.commit(assembled, session.getFileName(),
+                            session.getContentType(), session.getOwner());
+                } catch (IOException | RuntimeException e) {
+                    // commit() always consumes the work file, so the chunks are gone with it
+                    transactionTemplate.executeWithoutResult(status -> chunkRepository.deleteBySessionId(session.getId()));
+                    throw e;
+                }
+                session.setResultFileName(stored.getFileName());
+            } else {
+                ImportJob.Format format = session.getTarget() == UploadSession.Target.IMPORT_CSV
+                        ? ImportJob.Format.CSV : ImportJob.Format.EXCEL;
+                ImportJob job = importJobService.submit(handOff(workFile), session.getFileName(), format,
+                        session.getOwner());
+                Files.deleteIfExists(workFile);
+                session.setImportJobId(job.getId());
+            }
+
+            session.setStatus(UploadSession.Status.COMPLETED);
+            transactionTemplate.executeWithoutResult(status -> {
+                sessionRepository.save(session);
+                chunkRepository.deleteBySessionId(session.getId());
+            });
+            completed = true;
+            return session;
+        } finally {
+            if (!completed) {
+                transactionTemplate.executeWithoutResult(status -> sessionRepository.updateStatus(session.getId(),
+                        UploadSession.Status.COMPLETING, UploadSession.Status.OPEN));
+                session.setStatus(UploadSession.Status.OPEN);
+            }
+        }
+    }
+
+    private void beginWrite(String sessionId) {
+        activeWrites.merge(sessionId, 1, Integer::sum);
+    }
+
+    private void endWrite(String sessionId) {
+        activeWrites.computeIfPresent(sessionId, (id, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Waits for chunk writes that passed the status check before the session was closed.
+     * @throws IllegalStateException if they are still running after complete-wait-ms
+     */
+    private void awaitChunkWrites(String sessionId) {
+        long deadline = System.currentTimeMillis() + completeWaitMs;
+        while (activeWrites.containsKey(sessionId)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Chunk uploads are still in progress; complete the session once they finish");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for chunk uploads", e);
+            }
+        }
+    }
+
+    /**
+     * Discards a session and whatever was uploaded for it.
+     * @throws IllegalStateException if the session is being completed
+     */
+    public void abort(UploadSession session) throws IOException {
+        if (session.getStatus() == UploadSession.Status.COMPLETING) {
+            throw new IllegalStateException("Upload session is being completed");
+        }
+        delete(session);
+    }
+
+    /**
+     * Removes sessions that were neither completed nor resumed within the TTL,
+     * and the records of completed ones.
+     */
+    @Scheduled(initialDelayString = "${app.upload.session.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${app.upload.session.cleanup-interval-ms:3600000}")
+    public void removeExpiredSessions() {
+        List<UploadSession> expired = sessionRepository.findByStatusInAndExpiresDateBefore(
+                Arrays.asList(UploadSession.Status.OPEN, UploadSession.Status.COMPLETED), LocalDateTime.now());
+        for (UploadSession session : expired) {
+            try {
+                delete(session);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not remove expired upload session {}", session.getId(), e);
+            }
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Removed {} expired upload sessions", expired.size());
+        }
+    }
+
+    private void delete(UploadSession session) throws IOException {
+        transactionTemplate.executeWithoutResult(status -> {
+            chunkRepository.deleteBySessionId(session.getId());
+            sessionRepository.deleteById(session.getId());
+        });
+        Files.deleteIfExists(workFile(session));
+    }
+
+    /**
+     * A second name for the work file for the import job to own and delete, so a rejected
+     * submission leaves the session's file in place. Falls back to a copy where the
+     * file system has no hard links.
+     */
+    private Path handOff(Path workFile) throws IOException {
+        Path jobFile = fileStorageService.tempPath("import-" + UUID.randomUUID() + ".part");
+        try {
+            Files.createLink(jobFile, workFile);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(workFile, jobFile);
+        }
+        return jobFile;
+    }
+
+    private Path workFile(UploadSession session) {
+        return fileStorageService.tempPath("session-" + session.getId() + ".part");
+    }
+
+    private LocalDateTime expiry() {
+        return LocalDateTime.now().plusHours(ttlHours);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.project1.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.project1.model.MyEntity;
+import com.example.project1.service.EntityBatchService;
+import com.example.project1.service.EntityPatchService;
+import com.example.project1.service.EntityRevisionService;
+import com.example.project1.service.EntitySearchService;
+import com.example.project1.service.EntityService;
+
+@ExtendWith(MockitoExtension.class)
+class MyEntityRestControllerTest {
+
+    private static final String BODY = "{\"name\":\"renamed\"}";
+
+    @Mock
+    private EntityService entityService;
+
+    @Mock
+    private EntitySearchService entitySearchService;
+
+    @Mock
+    private EntityRevisionService entityRevisionService;
+
+    @Mock
+    private EntityPatchService entityPatchService;
+
+    @Mock
+    private EntityBatchService entityBatchService;
+
+    @InjectMocks
+    private MyEntityRestController controller;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void listCarriesTheCollectionETag() throws Exception {
+        when(entityService.collectionETag()).thenReturn("W/\"1-1-4\"");
+        when(entityService.findAll()).thenReturn(List.of(entity(1L, 4L)));
+
+        mockMvc.perform(get("/api/entities"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-1-4\""));
+    }
+
+    @Test
+    void listAnswersAMatchingIfNoneMatchWith304WithoutLoadingEntities() throws Exception {
+        when(entityService.collectionETag()).thenReturn("W/\"1-1-4\"");
+
+        mockMvc.perform(get("/api/entities").header(HttpHeaders.IF_NONE_MATCH, "W/\"1-1-4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-1-4\""));
+        verify(entityService, never()).findAll();
+        verify(entityService, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void listIsReturnedWhenTheCollectionHasChanged() throws Exception {
+        when(entityService.collectionETag()).thenReturn("W/\"2-2-5\"");
+        when(entityService.findAll()).thenReturn(List.of(entity(1L, 4L), entity(2L, 1L)));
+
+        mockMvc.perform(get("/api/entities").header(HttpHeaders.IF_NONE_MATCH, "W/\"1-1-4\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2-2-5\""));
+    }
+
+    @Test
+    void getByIdAnswersAMatchingIfNoneMatchWith304() throws Exception {
+        when(entityService.findById(1L)).thenReturn(Optional.of(entity(1L, 4L)));
+
+        mockMvc.perform(get("/api/entities/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        mockMvc.perform(get("/api/entities/1").header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/entities/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateWithAStaleIfMatchIsRefusedWith412AndTheCurrentETag() throws Exception {
+        when(entityService.findById(1L)).thenReturn(Optional.of(entity(1L, 4L)));
+
+        mockMvc.perform(put("/api/entities/1").header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(entityService, never()).update(any(), anyLong());
+    }
+
+    @Test
+    void updateWithAMatchingIfMatchSavesAtThatVersion() throws Exception {
+        when(entityService.findById(1L)).thenReturn(Optional.of(entity(1L, 4L)));
+        when(entityService.update(any(MyEntity.class), eq(4L))).thenReturn(entity(1L, 5L));
+
+        mockMvc.perform(put("/api/entities/1").header(HttpHeaders.IF_MATCH, "\"2\", \"4\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    void weakIfMatchNeverMatches() throws Exception {
+        when(entityService.findById(1L)).thenReturn(Optional.of(entity(1L, 4L)));
+
+        mockMvc.perform(put("/api/entities/1").header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed());
+        verify(entityService, never()).update(any(), anyLong());
+    }
+
+    @Test
+    void wildcardIfMatchMatchesAnyVersion() throws Exception {
+        when(entityService.findById(1L)).thenReturn(Optional.of(entity(1L, 4L)));
+        when(entityService.update(any(MyEntity.class), eq(4L))).thenReturn(entity(1L, 5L));
+
+        mockMvc.perform(put("/api/entities/1").header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void concurrentModificationIs412WithIfMatchAnd409Without() throws Exception {
+        when(entityService.findById(1L)).thenReturn(Optional.of(entity(1L, 4L)));
+        when(entityService.update(any(MyEntity.class), eq(4L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(MyEntity.class, 1L));
+
+        mockMvc.perform(put("/api/entities/1").header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/entities/1")
+                        .contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void deleteWithAStaleIfMatchIsRefusedWith412() throws Exception {
+        MyEntity current = entity(1L, 4L);
+        when(entityService.findById(1L)).thenReturn(Optional.of(current));
+
+        mockMvc.perform(delete("/api/entities/1").header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(entityService, never()).delete(any());
+
+        mockMvc.perform(delete("/api/entities/1").header(HttpHeaders.IF_MATCH, "\"4\""))
+                .andExpect(status().isNoContent());
+        verify(entityService).delete(current);
+    }
+
+    private static MyEntity entity(Long id, long version) {
+        MyEntity entity = new MyEntity();
+        entity.setId(id);
+        entity.setName("entity-" + id);
+        entity.setVersion(version);
+        return entity;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.project1.dto.BulkUploadResponse;
+import com.example.project1.model.StoredFile;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUploadServiceTest {
+
+    private static final String BOUNDARY = "test-boundary";
+    private static final String OWNER = "alice";
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    // Content of every part spooled, in the order it was read
+    private final List<byte[]> spooled = new CopyOnWriteArrayList<>();
+
+    private BulkUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new BulkUploadService(fileStorageService);
+        ReflectionTestUtils.setField(service, "ioThreads", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 2);
+        ReflectionTestUtils.setField(service, "maxFileSize", 1024L);
+        ReflectionTestUtils.setField(service, "maxRequestSize", 64 * 1024L);
+        service.startWorkers();
+
+        // Reads the part to the end, as spooling to disk would; the size limits apply while reading
+        lenient().when(fileStorageService.spool(any(InputStream.class))).thenAnswer(invocation -> {
+            spooled.add(invocation.<InputStream>getArgument(0).readAllBytes());
+            return null;
+        });
+        lenient().when(fileStorageService.commit(any(), anyString(), any(), eq(OWNER))).thenAnswer(invocation -> {
+            String originalName = invocation.getArgument(1);
+            return new StoredFile("stored-" + originalName, null, originalName, invocation.getArgument(2),
+                    0L, "checksum-" + originalName, OWNER);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stopWorkers();
+    }
+
+    @Test
+    void storesEveryFilePartInRequestOrder() {
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("a.txt", "hello");
+        files.put("b.txt", "world!");
+        files.put("c.txt", "");
+
+        List<BulkUploadResponse> results = service.upload(request(body(files, true)), OWNER);
+
+        assertEquals(List.of("a.txt", "b.txt", "c.txt"), originalNames(results));
+        for (BulkUploadResponse result : results) {
+            assertEquals(BulkUploadResponse.Status.STORED, result.getStatus());
+            assertEquals("stored-" + result.getOriginalFileName(), result.getFileName());
+            assertNull(result.getError());
+        }
+        // Form fields and parts without a file name are not spooled
+        assertEquals(3, spooled.size());
+        assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), spooled.get(0));
+        assertArrayEquals("world!".getBytes(StandardCharsets.UTF_8), spooled.get(1));
+        assertEquals(0, spooled.get(2).length);
+    }
+
+    @Test
+    void fileOverTheSizeLimitEndsTheUploadAndKeepsEarlierFiles() throws IOException {
+        ReflectionTestUtils.setField(service, "maxFileSize", 10L);
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("small.txt", "12345");
+        files.put("large.txt", "x".repeat(50));
+        files.put("after.txt", "123");
+
+        List<BulkUploadResponse> results = service.upload(request(body(files, false)), OWNER);
+
+        assertEquals(List.of("small.txt", "large.txt"), originalNames(results));
+        assertEquals(BulkUploadResponse.Status.STORED, results.get(0).getStatus());
+        assertEquals(BulkUploadResponse.Status.FAILED, results.get(1).getStatus());
+        assertEquals("File exceeds the maximum size of 10 bytes", results.get(1).getError());
+        verify(fileStorageService, never()).commit(any(), eq("large.txt"), any(), any());
+        verify(fileStorageService, never()).commit(any(), eq("after.txt"), any(), any());
+    }
+
+    @Test
+    void requestOverTheSizeLimitIsRefusedAsAWhole() throws IOException {
+        ReflectionTestUtils.setField(service, "maxRequestSize", 100L);
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("a.txt", "x".repeat(80));
+        files.put("b.txt", "y".repeat(80));
+
+        List<BulkUploadResponse> results = service.upload(request(body(files, false)), OWNER);
+
+        BulkUploadResponse last = results.get(results.size() - 1);
+        assertEquals(BulkUploadResponse.Status.FAILED, last.getStatus());
+        assertEquals("Upload exceeds the maximum request size of 100 bytes", last.getError());
+        verify(fileStorageService, never()).commit(any(), eq("b.txt"), any(), any());
+    }
+
+    @Test
+    void storeFailureOnlyFailsThatFile() throws IOException {
+        lenient().when(fileStorageService.commit(any(), eq("b.txt"), any(), eq(OWNER)))
+                .thenThrow(new IOException("disk full"));
+        Map<String, String> files = new LinkedHashMap<>();
+        files.put("a.txt", "hello");
+        files.put("b.txt", "world");
+        files.put("c.txt", "again");
+
+        List<BulkUploadResponse> results = service.upload(request(body(files, false)), OWNER);
+
+        assertEquals(List.of("a.txt", "b.txt", "c.txt"), originalNames(results));
+        assertEquals(List.of(BulkUploadResponse.Status.STORED, BulkUploadResponse.Status.FAILED,
+                BulkUploadResponse.Status.STORED),
+                results.stream().map(BulkUploadResponse::getStatus).collect(Collectors.toList()));
+        assertEquals("Could not store file: disk full", results.get(1).getError());
+    }
+
+    @Test
+    void moreFilesThanWorkersAndQueueAreAllStored() {
+        // Two workers and two queue slots: the request thread stores the rest itself
+        Map<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            files.put("file-" + i + ".txt", "content " + i);
+        }
+
+        List<BulkUploadResponse> results = service.upload(request(body(files, false)), OWNER);
+
+        assertEquals(List.copyOf(files.keySet()), originalNames(results));
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BulkUploadResponse.Status.STORED));
+    }
+
+    @Test
+    void onlyMultipartPostsAreStreamed() {
+        assertTrue(BulkUploadService.isMultipart(request(new byte[0])));
+
+        MockHttpServletRequest get = request(new byte[0]);
+        get.setMethod("GET");
+        assertFalse(BulkUploadService.isMultipart(get));
+
+        MockHttpServletRequest json = request(new byte[0]);
+        json.setContentType("application/json");
+        assertFalse(BulkUploadService.isMultipart(json));
+    }
+
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/files/upload/stream");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body);
+        return request;
+    }
+
+    /**
+     * Builds a multipart/form-data body with one part per file, optionally preceded by a form
+     * field and followed by a file part without a file name.
+     */
+    private static byte[] body(Map<String, String> files, boolean withOtherParts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (withOtherParts) {
+            write(out, "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"note\"\r\n\r\n"
+                    + "not a file\r\n");
+        }
+        files.forEach((name, content) -> write(out, "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"" + name + "\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + content + "\r\n"));
+        if (withOtherParts) {
+            write(out, "--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"files\"; filename=\"\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n\r\n"
+                    + "\r\n");
+        }
+        write(out, "--" + BOUNDARY + "--\r\n");
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> originalNames(List<BulkUploadResponse> results) {
+        return results.stream().map(BulkUploadResponse::getOriginalFileName).collect(Collectors.toList());
+    }
+}
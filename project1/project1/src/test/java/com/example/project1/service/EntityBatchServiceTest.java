@@ -0,0 +1,287 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.project1.dto.CustomColumnDTO;
+import com.example.project1.dto.EntityBatchOperation;
+import com.example.project1.dto.EntityBatchResult;
+import com.example.project1.dto.MyEntityDTO;
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+
+@ExtendWith(MockitoExtension.class)
+class EntityBatchServiceTest {
+
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    @Mock
+    private EntityStatisticsCounters statisticsCounters;
+
+    @Mock
+    private AuditEventListener auditEventListener;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Query nativeQuery;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private NativeQuery<?> deleteColumnsQuery;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private Query deleteEntitiesQuery;
+
+    // Stands in for the entity table and its custom column rows
+    private final Map<Long, MyEntity> stored = new TreeMap<>();
+
+    private long nextId = 100L;
+
+    private EntityBatchService service;
+
+    @AfterAll
+    static void closeValidator() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new EntityBatchService(entityRepository, statisticsCounters, auditEventListener,
+                VALIDATOR_FACTORY.getValidator(), transactionManager);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+        ReflectionTestUtils.setField(service, "maxOperations", 10);
+
+        stored.put(1L, entity(1L, 2L));
+        stored.put(2L, entity(2L, 0L));
+        stored.put(3L, entity(3L, 1L, new CustomColumn("amount", "5", CustomColumnType.NUMBER),
+                new CustomColumn("note", "x", CustomColumnType.TEXT)));
+        stored.put(4L, entity(4L, 0L));
+
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        lenient().when(entityManager.createNativeQuery(anyString())).thenReturn(nativeQuery);
+        lenient().when(nativeQuery.unwrap(NativeQuery.class)).thenReturn(deleteColumnsQuery);
+        lenient().when(entityManager.createQuery(anyString())).thenReturn(deleteEntitiesQuery);
+        lenient().doAnswer(invocation -> {
+            MyEntity entity = invocation.getArgument(0);
+            entity.setId(nextId++);
+            return null;
+        }).when(entityManager).persist(any(MyEntity.class));
+
+        lenient().when(entityRepository.findAllWithCustomColumnsByIdIn(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(stored::containsKey)
+                        .map(stored::get)
+                        .collect(Collectors.toList()));
+        lenient().when(entityRepository.findVersionsByIdIn(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(stored::containsKey)
+                        .map(id -> new Object[] {id, stored.get(id).getVersion()})
+                        .collect(Collectors.toList()));
+        lenient().when(entityRepository.findColumnTypesByIdIn(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(stored::containsKey)
+                        .flatMap(id -> stored.get(id).getCustomColumns().stream()
+                                .map(column -> new Object[] {id, column.getColumnType()}))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void everyOperationGetsItsOwnResultInRequestOrder() {
+        List<EntityBatchResult> results = service.execute(List.of(
+                create("new"),
+                create(" "),
+                update(1L, 2L, "renamed"),
+                update(2L, 5L, "stale"),
+                update(9L, null, "missing"),
+                delete(3L, 1L),
+                delete(1L, null),
+                delete(8L, null),
+                operation(null, null, null)));
+
+        assertEquals(List.of(201, 400, 200, 412, 404, 204, 400, 404, 400), statuses(results));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertEquals(100L, results.get(0).getId());
+        assertEquals("Name is required", results.get(1).getMessage());
+        assertEquals("renamed", stored.get(1L).getName());
+        assertEquals("Entity 1 appears more than once", results.get(6).getMessage());
+        assertEquals("op is required", results.get(8).getMessage());
+    }
+
+    @Test
+    void malformedOperationsAreRejectedWithoutWriting() {
+        List<EntityBatchResult> results = service.execute(List.of(
+                operation(EntityBatchOperation.Type.CREATE, 5L, dto("with id")),
+                operation(EntityBatchOperation.Type.CREATE, null, null),
+                operation(EntityBatchOperation.Type.UPDATE, null, dto("no id")),
+                operation(EntityBatchOperation.Type.UPDATE, 1L, null),
+                operation(EntityBatchOperation.Type.DELETE, null, null)));
+
+        assertEquals(List.of(400, 400, 400, 400, 400), statuses(results));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void tooManyOperationsAreRefused() {
+        List<EntityBatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            operations.add(create("entity " + i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service.execute(operations));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void failedChunkReportsItsAppliedOperationsAndLeavesOtherChunksAlone() {
+        ReflectionTestUtils.setField(service, "chunkSize", 3);
+        doThrow(new IllegalStateException("constraint violated")).doNothing().when(entityManager).flush();
+
+        List<EntityBatchResult> results = service.execute(List.of(
+                update(1L, null, "renamed"),
+                update(9L, null, "missing"),
+                create("first"),
+                create("second")));
+
+        // The 404 was decided before the failure and stays; everything applied in the chunk is undone
+        assertEquals(List.of(500, 404, 500, 201), statuses(results));
+        assertTrue(results.get(0).getMessage().startsWith("Rolled back with its chunk: "));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void chunkLosingAnOptimisticLockRaceIsAConflict() {
+        doThrow(new ObjectOptimisticLockingFailureException(MyEntity.class, 1L)).when(entityManager).flush();
+
+        List<EntityBatchResult> results = service.execute(List.of(
+                update(1L, 2L, "renamed"),
+                delete(3L, null)));
+
+        assertEquals(List.of(409, 409), statuses(results));
+    }
+
+    @Test
+    void bulkDeleteReportsToCountersAndAudit() {
+        List<EntityBatchResult> results = service.execute(List.of(
+                delete(3L, 1L),
+                delete(4L, null),
+                delete(2L, 7L)));
+
+        assertEquals(List.of(204, 204, 412), statuses(results));
+        // One removal per deleted entity, with its column types, since bulk statements raise no events
+        verify(statisticsCounters).entityRemoved(argThat(columns -> columns.stream()
+                .map(CustomColumn::getColumnType)
+                .collect(Collectors.toList())
+                .equals(List.of(CustomColumnType.NUMBER, CustomColumnType.TEXT))));
+        verify(statisticsCounters).entityRemoved(List.of());
+        verify(auditEventListener).recordBulkDelete(entityManager, List.of(3L, 4L));
+        verify(deleteColumnsQuery).addSynchronizedQuerySpace("entity_custom_columns");
+        verify(deleteColumnsQuery).setParameter("ids", List.of(3L, 4L));
+        verify(deleteEntitiesQuery).setParameter("ids", List.of(3L, 4L));
+    }
+
+    @Test
+    void deletesThatAllFailTheirChecksAreNotReported() {
+        List<EntityBatchResult> results = service.execute(List.of(
+                delete(2L, 7L),
+                delete(8L, null)));
+
+        assertEquals(List.of(412, 404), statuses(results));
+        verify(statisticsCounters, never()).entityRemoved(any());
+        verify(auditEventListener, never()).recordBulkDelete(any(), any());
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    private static EntityBatchOperation create(String name) {
+        return operation(EntityBatchOperation.Type.CREATE, null, dto(name));
+    }
+
+    private static EntityBatchOperation update(Long id, Long version, String name) {
+        EntityBatchOperation operation = operation(EntityBatchOperation.Type.UPDATE, id, dto(name));
+        operation.setVersion(version);
+        return operation;
+    }
+
+    private static EntityBatchOperation delete(Long id, Long version) {
+        EntityBatchOperation operation = operation(EntityBatchOperation.Type.DELETE, id, null);
+        operation.setVersion(version);
+        return operation;
+    }
+
+    private static EntityBatchOperation operation(EntityBatchOperation.Type op, Long id, MyEntityDTO entity) {
+        EntityBatchOperation operation = new EntityBatchOperation();
+        operation.setOp(op);
+        operation.setId(id);
+        operation.setEntity(entity);
+        return operation;
+    }
+
+    private static MyEntityDTO dto(String name) {
+        MyEntityDTO dto = new MyEntityDTO();
+        dto.setName(name);
+        dto.setCustomColumns(new ArrayList<>(List.of(new CustomColumnDTO("color", "red"))));
+        return dto;
+    }
+
+    private static MyEntity entity(Long id, long version, CustomColumn... columns) {
+        MyEntity entity = new MyEntity();
+        entity.setId(id);
+        entity.setVersion(version);
+        entity.setName("entity-" + id);
+        entity.setCustomColumns(new ArrayList<>(List.of(columns)));
+        return entity;
+    }
+
+    private static List<Integer> statuses(List<EntityBatchResult> results) {
+        return results.stream().map(EntityBatchResult::getStatus).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.project1.dto.EntityPatchRequest;
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class EntityPatchServiceTest {
+
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    // Stands in for the entity table
+    private final Map<Long, MyEntity> stored = new TreeMap<>();
+
+    private EntityPatchService service;
+
+    @AfterAll
+    static void closeValidator() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = VALIDATOR_FACTORY.getValidator();
+        service = new EntityPatchService(entityRepository, validator);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 3);
+
+        stored.put(1L, entity(1L, 2L, "first", new CustomColumn("color", "red"), new CustomColumn("size", "L")));
+        stored.put(2L, entity(2L, 0L, "second"));
+
+        lenient().when(entityRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<Long>getArgument(0))));
+        lenient().when(entityRepository.findAllWithCustomColumnsByIdIn(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .map(stored::get)
+                        .filter(entity -> entity != null)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void absentFieldsAreLeftAndNullClearsAField() throws Exception {
+        MyEntity patched = service.patch(1L, 2L, json("{\"description\":null}"));
+
+        assertEquals("first", patched.getName());
+        assertNull(patched.getDescription());
+        assertEquals(List.of("color", "size"), names(patched));
+    }
+
+    @Test
+    void arrayReplacesEveryColumn() throws Exception {
+        MyEntity patched = service.patch(1L, 2L,
+                json("{\"customColumns\":[{\"name\":\"weight\",\"value\":\"3\",\"columnType\":\"NUMBER\"}]}"));
+
+        assertEquals(List.of("weight"), names(patched));
+        assertEquals(CustomColumnType.NUMBER, patched.getCustomColumns().get(0).getColumnType());
+    }
+
+    @Test
+    void objectPatchesColumnsByName() throws Exception {
+        MyEntity patched = service.patch(1L, 2L,
+                json("{\"customColumns\":{\"color\":{\"value\":\"blue\"},\"size\":null,\"shape\":{\"value\":\"round\"}}}"));
+
+        assertEquals(List.of("color", "shape"), names(patched));
+        assertEquals("blue", patched.getCustomColumns().get(0).getValue());
+        assertEquals("round", patched.getCustomColumns().get(1).getValue());
+        // Merged, not replaced: untouched attributes of the column are kept
+        assertEquals(CustomColumnType.TEXT, patched.getCustomColumns().get(0).getColumnType());
+    }
+
+    @Test
+    void nullCustomColumnsRemovesThemAll() throws Exception {
+        MyEntity patched = service.patch(1L, 2L, json("{\"customColumns\":null}"));
+
+        assertTrue(patched.getCustomColumns().isEmpty());
+    }
+
+    @Test
+    void removingAMissingColumnIsANoOp() throws Exception {
+        MyEntity patched = service.patch(1L, 2L, json("{\"customColumns\":{\"weight\":null}}"));
+
+        assertEquals(List.of("color", "size"), names(patched));
+    }
+
+    @Test
+    void idVersionAndUnknownFieldsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.patch(1L, 2L, json("{\"id\":5}")));
+        assertThrows(IllegalArgumentException.class, () -> service.patch(1L, 2L, json("{\"version\":5}")));
+        assertThrows(IllegalArgumentException.class, () -> service.patch(1L, 2L, json("{\"color\":\"red\"}")));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.patch(1L, 2L, json("{\"customColumns\":{\"color\":{\"colour\":\"red\"}}}")));
+        assertThrows(IllegalArgumentException.class, () -> service.patch(1L, 2L, json("[]")));
+    }
+
+    @Test
+    void patchedEntityMustStillBeValid() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.patch(1L, 2L, json("{\"name\":null}")));
+
+        assertEquals("Name is required", e.getMessage());
+    }
+
+    @Test
+    void staleOrMissingEntityIsAnOptimisticLockFailure() {
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.patch(1L, 1L, json("{\"name\":\"renamed\"}")));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.patch(9L, 0L, json("{\"name\":\"renamed\"}")));
+        assertEquals("first", stored.get(1L).getName());
+    }
+
+    @Test
+    void patchAllReturnsEntitiesInRequestOrder() throws Exception {
+        Optional<List<MyEntity>> patched = service.patchAll(List.of(
+                request(2L, null, "{\"name\":\"two\"}"),
+                request(1L, 2L, "{\"name\":\"one\"}")));
+
+        assertTrue(patched.isPresent());
+        assertEquals(List.of(2L, 1L), patched.get().stream().map(MyEntity::getId).collect(Collectors.toList()));
+        assertEquals("two", stored.get(2L).getName());
+        assertEquals("one", stored.get(1L).getName());
+    }
+
+    @Test
+    void patchAllIsEmptyWhenAnEntityIsMissing() throws Exception {
+        Optional<List<MyEntity>> patched = service.patchAll(List.of(
+                request(1L, null, "{\"name\":\"one\"}"),
+                request(9L, null, "{\"name\":\"nine\"}")));
+
+        assertFalse(patched.isPresent());
+        assertEquals("first", stored.get(1L).getName());
+    }
+
+    @Test
+    void patchAllRejectsDuplicatesIncompleteItemsAndOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> service.patchAll(List.of(
+                request(1L, null, "{\"name\":\"one\"}"),
+                request(1L, null, "{\"name\":\"again\"}"))));
+        assertThrows(IllegalArgumentException.class, () -> service.patchAll(List.of(
+                request(1L, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> service.patchAll(List.of(
+                request(1L, null, "{}"), request(2L, null, "{}"),
+                request(3L, null, "{}"), request(4L, null, "{}"))));
+        verify(entityRepository, never()).findAllWithCustomColumnsByIdIn(anyCollection());
+    }
+
+    @Test
+    void patchAllFailsAsAWholeOnAnInvalidItem() {
+        // Thrown out of the transactional method, so the patch already applied to entity 1 rolls back
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.patchAll(List.of(
+                request(1L, null, "{\"name\":\"one\"}"),
+                request(2L, null, "{\"name\":\"\"}"))));
+
+        assertTrue(e.getMessage().startsWith("Entity 2: "), e.getMessage());
+    }
+
+    @Test
+    void patchAllFailsAsAWholeOnAStaleVersion() {
+        ObjectOptimisticLockingFailureException e = assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> service.patchAll(List.of(
+                        request(1L, 2L, "{\"name\":\"one\"}"),
+                        request(2L, 3L, "{\"name\":\"two\"}"))));
+
+        assertEquals(2L, e.getIdentifier());
+        assertEquals("second", stored.get(2L).getName());
+    }
+
+    @Test
+    void emptyPatchAllChangesNothing() {
+        Optional<List<MyEntity>> patched = service.patchAll(List.of());
+
+        assertTrue(patched.isPresent());
+        assertTrue(patched.get().isEmpty());
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+
+    private EntityPatchRequest request(Long id, Long version, String patch) throws Exception {
+        EntityPatchRequest request = new EntityPatchRequest();
+        request.setId(id);
+        request.setVersion(version);
+        request.setPatch(patch != null ? json(patch) : null);
+        return request;
+    }
+
+    private static MyEntity entity(Long id, long version, String name, CustomColumn... columns) {
+        MyEntity entity = new MyEntity();
+        entity.setId(id);
+        entity.setVersion(version);
+        entity.setName(name);
+        entity.setDescription("about " + name);
+        entity.setCustomColumns(new ArrayList<>(List.of(columns)));
+        return entity;
+    }
+
+    private static List<String> names(MyEntity entity) {
+        return entity.getCustomColumns().stream().map(CustomColumn::getName).collect(Collectors.toList());
+    }
+}
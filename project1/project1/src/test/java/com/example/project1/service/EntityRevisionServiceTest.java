@@ -0,0 +1,167 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.project1.model.EntityRevision;
+import com.example.project1.repository.EntityRevisionRepository;
+import com.example.project1.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class EntityRevisionServiceTest {
+
+    private static final String TYPE = "MyEntity";
+    private static final Long ID = 42L;
+    private static final int SNAPSHOT_INTERVAL = 3;
+
+    @Mock
+    private EntityRevisionRepository revisionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Stands in for the revision table
+    private final List<EntityRevision> stored = new ArrayList<>();
+
+    private EntityRevisionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EntityRevisionService(revisionRepository, userRepository, objectMapper);
+        ReflectionTestUtils.setField(service, "snapshotInterval", SNAPSHOT_INTERVAL);
+        ReflectionTestUtils.setField(service, "compressThreshold", 64);
+        ReflectionTestUtils.setField(service, "stateCacheSize", 100);
+
+        lenient().when(revisionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<EntityRevision> revisions = invocation.getArgument(0);
+            stored.addAll(revisions);
+            return revisions;
+        });
+        lenient().when(revisionRepository.findLatestRevisionNumber(TYPE, ID)).thenAnswer(invocation ->
+                stored.stream().map(EntityRevision::getRevisionNumber).max(Integer::compare).orElse(null));
+        lenient().when(revisionRepository.findFullStatesUpTo(eq(TYPE), eq(ID), anyInt(),
+                eq(EntityRevision.Encoding.DELTA), any(Pageable.class))).thenAnswer(invocation -> {
+                    int upTo = invocation.getArgument(2);
+                    return stored.stream()
+                            .filter(r -> r.getRevisionNumber() <= upTo && r.getEncoding() != EntityRevision.Encoding.DELTA)
+                            .sorted(Comparator.comparing(EntityRevision::getRevisionNumber).reversed())
+                            .limit(1)
+                            .collect(Collectors.toList());
+                });
+        lenient().when(revisionRepository.findRevisionsBetween(eq(TYPE), eq(ID), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    int after = invocation.getArgument(2);
+                    int upTo = invocation.getArgument(3);
+                    return stored.stream()
+                            .filter(r -> r.getRevisionNumber() > after && r.getRevisionNumber() <= upTo)
+                            .sorted(Comparator.comparing(EntityRevision::getRevisionNumber))
+                            .collect(Collectors.toList());
+                });
+    }
+
+    @Test
+    void rebuildsEveryRevisionAcrossSnapshotBoundaries() {
+        List<String> states = states(8);
+        service.append(records(states, 0));
+
+        assertEquals(8, stored.size());
+        for (EntityRevision revision : stored) {
+            int number = revision.getRevisionNumber();
+            EntityRevision.Encoding expected = number == 1 || number % SNAPSHOT_INTERVAL == 0
+                    ? EntityRevision.Encoding.SNAPSHOT
+                    : EntityRevision.Encoding.DELTA;
+            assertEquals(expected, revision.getEncoding(), "encoding of revision " + number);
+        }
+        assertTrue(stored.stream().anyMatch(EntityRevision::isCompressed), "some payloads should be compressed");
+
+        for (int number = 1; number <= states.size(); number++) {
+            assertEquals(json(states.get(number - 1)), service.getRevision(TYPE, ID, number).get().getState(),
+                    "state of revision " + number);
+        }
+    }
+
+    @Test
+    void continuesTheDeltaChainFromStoredRevisionsAfterEviction() {
+        List<String> states = states(7);
+        service.append(records(states.subList(0, 4), 0));
+        service.evictLatestStates();
+        service.append(records(states.subList(4, 7), 4));
+
+        assertEquals(7, stored.size());
+        assertEquals(EntityRevision.Encoding.DELTA, stored.get(4).getEncoding());
+        assertEquals(EntityRevision.Encoding.SNAPSHOT, stored.get(5).getEncoding());
+        for (int number = 1; number <= states.size(); number++) {
+            assertEquals(json(states.get(number - 1)), service.getRevision(TYPE, ID, number).get().getState(),
+                    "state of revision " + number);
+        }
+    }
+
+    @Test
+    void returnsEmptyForMissingRevisions() {
+        service.append(records(states(4), 0));
+
+        assertFalse(service.getRevision(TYPE, ID, 5).isPresent());
+        assertFalse(service.getRevision(TYPE, 7L, 1).isPresent());
+    }
+
+    // Successive states that rename the entity and grow, change and shrink its custom columns
+    private static List<String> states(int count) {
+        List<String> states = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder columns = new StringBuilder();
+            int columnCount = i % 4 + 1;
+            for (int c = 0; c < columnCount; c++) {
+                if (c > 0) {
+                    columns.append(',');
+                }
+                columns.append("{'name':'col/").append(c).append("','value':'v").append(i * c).append("'}");
+            }
+            states.add("{'id':42,'name':'entity " + i + "','description':'" + "x".repeat(40 + i)
+                    + "','customColumns':[" + columns + "]}");
+        }
+        return states;
+    }
+
+    private List<AuditTrailWriter.AuditRecord> records(List<String> states, int alreadyRecorded) {
+        List<AuditTrailWriter.AuditRecord> records = new ArrayList<>(states.size());
+        for (int i = 0; i < states.size(); i++) {
+            boolean first = alreadyRecorded + i == 0;
+            records.add(new AuditTrailWriter.AuditRecord(TYPE, ID, null,
+                    first ? EntityRevision.RevisionType.CREATE : EntityRevision.RevisionType.UPDATE,
+                    null, states.get(i).replace('\'', '"'), first ? "Created" : "Updated"));
+        }
+        return records;
+    }
+
+    private JsonNode json(String json) {
+        try {
+            return objectMapper.readTree(json.replace('\'', '"'));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
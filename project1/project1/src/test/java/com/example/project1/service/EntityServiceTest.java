@@ -0,0 +1,78 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.project1.model.MyEntity;
+import com.example.project1.repository.EntityRepository;
+
+@ExtendWith(MockitoExtension.class)
+class EntityServiceTest {
+
+    @Mock
+    private EntityRepository entityRepository;
+
+    private EntityService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EntityService(entityRepository);
+    }
+
+    @Test
+    void collectionETagIsWeakAndBuiltFromCountMaxIdAndVersionSum() {
+        when(entityRepository.findCollectionVersion()).thenReturn(rows(new Object[] {3L, 7L, 12L}));
+
+        assertEquals("W/\"3-7-12\"", service.collectionETag());
+    }
+
+    @Test
+    void collectionETagChangesWhenAnEntityIsUpdated() {
+        when(entityRepository.findCollectionVersion())
+                .thenReturn(rows(new Object[] {3L, 7L, 12L}))
+                .thenReturn(rows(new Object[] {3L, 7L, 13L}));
+
+        assertNotEquals(service.collectionETag(), service.collectionETag());
+    }
+
+    @Test
+    void collectionETagOfAnEmptyTable() {
+        when(entityRepository.findCollectionVersion()).thenReturn(rows(new Object[] {0L, 0L, 0L}));
+
+        assertEquals("W/\"0-0-0\"", service.collectionETag());
+    }
+
+    @Test
+    void updateSavesWithTheExpectedVersion() {
+        MyEntity entity = new MyEntity();
+        entity.setId(5L);
+        entity.setVersion(9L);
+        when(entityRepository.save(any(MyEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.update(entity, 4L);
+
+        // The version sent to Hibernate is the one the precondition was checked against
+        ArgumentCaptor<MyEntity> saved = ArgumentCaptor.forClass(MyEntity.class);
+        verify(entityRepository).save(saved.capture());
+        assertEquals(4L, saved.getValue().getVersion());
+    }
+
+    private static List<Object[]> rows(Object[] row) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row);
+        return rows;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.spi.QueryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.example.project1.dto.EntityStatistics;
+import com.example.project1.model.CustomColumn;
+import com.example.project1.model.CustomColumnType;
+import com.example.project1.model.StatisticsCounter;
+import com.example.project1.repository.StatisticsCounterRepository;
+
+@ExtendWith(MockitoExtension.class)
+class EntityStatisticsCountersTest {
+
+    @Mock
+    private StatisticsCounterRepository counterRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SessionImplementor session;
+
+    @Mock
+    private ActionQueue actionQueue;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private QueryImplementor<?> counterUpdate;
+
+    // Processes registered with the action queue, run when a transaction commits
+    private final List<BeforeTransactionCompletionProcess> processes = new ArrayList<>();
+
+    private EntityStatisticsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new EntityStatisticsCounters(counterRepository, transactionManager);
+        ReflectionTestUtils.setField(counters, "entityManager", entityManager);
+
+        lenient().when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        lenient().when(session.getActionQueue()).thenReturn(actionQueue);
+        lenient().when(session.createQuery(anyString())).thenReturn(counterUpdate);
+        lenient().when(counterUpdate.executeUpdate()).thenReturn(1);
+        lenient().doAnswer(invocation -> processes.add(invocation.getArgument(0)))
+                .when(actionQueue).registerProcess(any(BeforeTransactionCompletionProcess.class));
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void committedChangesReachTheTableAndTheMirror() {
+        inTransaction(true, () -> {
+            counters.entityAdded(List.of(new CustomColumn("amount", "5", CustomColumnType.NUMBER),
+                    new CustomColumn("note", "x", null)));
+            counters.entityAdded(List.of());
+        });
+
+        EntityStatistics snapshot = counters.snapshot();
+        assertEquals(2, snapshot.getTotalEntities());
+        assertEquals(1, snapshot.getEntitiesWithCustomColumns());
+        // A column without a type counts as TEXT
+        assertEquals(Map.of(CustomColumnType.NUMBER, 1L, CustomColumnType.TEXT, 1L), snapshot.getColumnTypeCounts());
+
+        verify(counterUpdate).setParameter("name", EntityStatisticsCounters.TOTAL_ENTITIES);
+        verify(counterUpdate).setParameter("change", 2L);
+        // Counters that did not change are not written
+        verify(session, times(4)).createQuery(anyString());
+    }
+
+    @Test
+    void rolledBackChangesDoNotReachTheMirror() {
+        inTransaction(true, () -> counters.entityAdded(List.of(new CustomColumn("note", "x"))));
+        inTransaction(false, () -> {
+            counters.entityRemoved(List.of(new CustomColumn("note", "x")));
+            counters.entityAdded(List.of());
+        });
+
+        EntityStatistics snapshot = counters.snapshot();
+        assertEquals(1, snapshot.getTotalEntities());
+        assertEquals(1, snapshot.getEntitiesWithCustomColumns());
+        assertEquals(Map.of(CustomColumnType.TEXT, 1L), snapshot.getColumnTypeCounts());
+    }
+
+    @Test
+    void oneTransactionRegistersOneTableUpdate() {
+        inTransaction(true, () -> {
+            counters.entityAdded(List.of());
+            counters.entityAdded(List.of());
+            counters.entityRemoved(List.of());
+        });
+
+        verify(actionQueue, times(1)).registerProcess(any(BeforeTransactionCompletionProcess.class));
+        assertEquals(1, counters.snapshot().getTotalEntities());
+        // The next transaction starts from a fresh delta
+        assertNull(TransactionSynchronizationManager.getResource(counters));
+    }
+
+    @Test
+    void columnChangesMoveCountsBetweenTypes() {
+        inTransaction(true, () -> counters.entityAdded(List.of(new CustomColumn("note", "x"))));
+        inTransaction(true, () -> counters.columnsChanged(
+                List.of(new CustomColumn("note", "x")),
+                List.of(new CustomColumn("due", "2024-01-01", CustomColumnType.DATE),
+                        new CustomColumn("done", "true", CustomColumnType.BOOLEAN))));
+
+        EntityStatistics snapshot = counters.snapshot();
+        assertEquals(1, snapshot.getEntitiesWithCustomColumns());
+        assertEquals(Map.of(CustomColumnType.DATE, 1L, CustomColumnType.BOOLEAN, 1L), snapshot.getColumnTypeCounts());
+    }
+
+    @Test
+    void writesOutsideATransactionAreLeftToReconciliation() {
+        counters.entityAdded(List.of(new CustomColumn("note", "x")));
+
+        assertEquals(0, counters.snapshot().getTotalEntities());
+        verify(entityManager, never()).unwrap(any());
+    }
+
+    @Test
+    void reconcileCorrectsTheRowsAndAddsTheCorrectionToTheMirror() {
+        StatisticsCounter total = new StatisticsCounter(EntityStatisticsCounters.TOTAL_ENTITIES, 3L);
+        when(counterRepository.findAll()).thenReturn(List.of(total));
+        when(counterRepository.findAllForUpdate()).thenReturn(List.of(total));
+        assertTrue(counters.loadFromTable());
+
+        boolean[] drifted = new boolean[1];
+        inTransaction(true, () -> drifted[0] = counters.reconcile(() -> statistics(5L, 0L)));
+
+        assertTrue(drifted[0]);
+        assertEquals(5L, total.getValue());
+        assertEquals(5L, counters.snapshot().getTotalEntities());
+
+        // Later changes are added on top of the corrected value
+        inTransaction(true, () -> counters.entityAdded(List.of()));
+        assertEquals(6L, counters.snapshot().getTotalEntities());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<StatisticsCounter>> created = ArgumentCaptor.forClass(Iterable.class);
+        verify(counterRepository).saveAll(created.capture());
+        List<String> names = new ArrayList<>();
+        created.getValue().forEach(row -> names.add(row.getName()));
+        assertTrue(names.contains(EntityStatisticsCounters.ENTITIES_WITH_CUSTOM_COLUMNS));
+        assertFalse(names.contains(EntityStatisticsCounters.TOTAL_ENTITIES));
+    }
+
+    @Test
+    void reconcileReportsNoDriftWhenTheCountersAreRight() {
+        List<StatisticsCounter> rows = new ArrayList<>();
+        rows.add(new StatisticsCounter(EntityStatisticsCounters.TOTAL_ENTITIES, 2L));
+        rows.add(new StatisticsCounter(EntityStatisticsCounters.ENTITIES_WITH_CUSTOM_COLUMNS, 1L));
+        for (CustomColumnType type : CustomColumnType.values()) {
+            rows.add(new StatisticsCounter(EntityStatisticsCounters.COLUMN_TYPE_PREFIX + type.name(),
+                    type == CustomColumnType.TEXT ? 1L : 0L));
+        }
+        when(counterRepository.findAllForUpdate()).thenReturn(rows);
+
+        boolean[] drifted = new boolean[1];
+        inTransaction(true, () -> drifted[0] = counters.reconcile(() -> statistics(2L, 1L)));
+
+        assertFalse(drifted[0]);
+    }
+
+    @Test
+    void rolledBackReconcileLeavesTheMirror() {
+        when(counterRepository.findAllForUpdate()).thenReturn(List.of());
+
+        inTransaction(false, () -> counters.reconcile(() -> statistics(5L, 0L)));
+
+        assertEquals(0, counters.snapshot().getTotalEntities());
+    }
+
+    /**
+     * Runs the work with transaction synchronization active, then completes it the way a
+     * transaction manager and Hibernate would: before-completion processes and afterCommit
+     * only on commit, afterCompletion either way.
+     */
+    private void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                processes.forEach(process -> process.doBeforeTransactionCompletion(session));
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            processes.clear();
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static EntityStatistics statistics(long total, long textColumns) {
+        Map<CustomColumnType, Long> counts = new EnumMap<>(CustomColumnType.class);
+        if (textColumns > 0) {
+            counts.put(CustomColumnType.TEXT, textColumns);
+        }
+        return new EntityStatistics(total, textColumns > 0 ? 1 : 0, counts, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+class JsonPatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void roundTripsObjectAddRemoveAndReplace() {
+        assertRoundTrip("{'name':'a','description':'old','removed':1}",
+                "{'name':'b','description':'old','added':{'nested':true}}");
+    }
+
+    @Test
+    void roundTripsNestedObjectChanges() {
+        assertRoundTrip("{'outer':{'keep':1,'change':2,'drop':3}}",
+                "{'outer':{'keep':1,'change':'two','new':[1,2]}}");
+    }
+
+    @Test
+    void roundTripsArrayGrowth() {
+        assertRoundTrip("{'customColumns':[{'name':'a','value':'1'}]}",
+                "{'customColumns':[{'name':'a','value':'2'},{'name':'b','value':'3'},{'name':'c','value':'4'}]}");
+        assertRoundTrip("[]", "[1,2,3]");
+    }
+
+    @Test
+    void roundTripsArrayShrinking() {
+        assertRoundTrip("{'customColumns':[1,2,3,4]}", "{'customColumns':[1,9]}");
+        assertRoundTrip("{'customColumns':[1,2,3]}", "{'customColumns':[]}");
+    }
+
+    @Test
+    void roundTripsRootReplace() {
+        assertRoundTrip("{'name':'a'}", "[1,2]");
+        assertRoundTrip("[1,2]", "'text'");
+        assertRoundTrip("1", "2");
+        assertRoundTrip("{'name':'a'}", "null");
+    }
+
+    @Test
+    void roundTripsKeysContainingTildeAndSlash() {
+        assertRoundTrip("{'a/b':1,'~c':2,'~1':3,'x~/y':{'p/q':4}}",
+                "{'a/b':10,'~c':20,'~01':30,'x~/y':{'p/q':40,'~':5}}");
+        assertRoundTrip("{'':1}", "{'':2,'/':3}");
+    }
+
+    @Test
+    void escapesKeysInPaths() {
+        ArrayNode operations = JsonPatch.diff(json("{'a/b':1,'c~d':1}"), json("{'a/b':2,'c~d':2}"));
+
+        assertEquals(2, operations.size());
+        assertEquals("/a~1b", operations.get(0).get("path").asText());
+        assertEquals("/c~0d", operations.get(1).get("path").asText());
+    }
+
+    @Test
+    void diffTouchesOnlyTheChangedArrayElement() {
+        ArrayNode operations = JsonPatch.diff(
+                json("{'customColumns':[{'name':'a','value':'1'},{'name':'b','value':'2'}]}"),
+                json("{'customColumns':[{'name':'a','value':'1'},{'name':'b','value':'3'}]}"));
+
+        assertEquals(json("[{'op':'replace','path':'/customColumns/1/value','value':'3'}]"), operations);
+    }
+
+    private void assertRoundTrip(String sourceJson, String targetJson) {
+        JsonNode source = json(sourceJson);
+        JsonNode target = json(targetJson);
+
+        JsonNode patched = JsonPatch.apply(source, JsonPatch.diff(source, target));
+
+        assertEquals(target, patched);
+        assertEquals(json(sourceJson), source, "apply must not modify its input");
+    }
+
+    private JsonNode json(String json) {
+        try {
+            return objectMapper.readTree(json.replace('\'', '"'));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
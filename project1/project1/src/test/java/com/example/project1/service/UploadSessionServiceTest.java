@@ -0,0 +1,317 @@
+package com.example.project1.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.project1.dto.UploadSessionRequest;
+import com.example.project1.model.UploadChunk;
+import com.example.project1.model.UploadSession;
+import com.example.project1.repository.UploadChunkRepository;
+import com.example.project1.repository.UploadSessionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    // Three chunks: "abcd", "efgh", "ij"
+    private static final byte[] CONTENT = "abcdefghij".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHUNK_SIZE = 4;
+
+    @Mock
+    private UploadSessionRepository sessionRepository;
+
+    @Mock
+    private UploadChunkRepository chunkRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private ImportJobService importJobService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    // Stand in for the session status column and the upload_chunks rows
+    private final AtomicReference<UploadSession.Status> status = new AtomicReference<>(UploadSession.Status.OPEN);
+    private final Set<Integer> recorded = new ConcurrentSkipListSet<>();
+
+    private UploadSession session;
+
+    private UploadSessionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UploadSessionService(sessionRepository, chunkRepository, fileStorageService, importJobService,
+                transactionManager);
+        ReflectionTestUtils.setField(service, "defaultChunkSize", 8 * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "minChunkSize", 1024 * 1024);
+        ReflectionTestUtils.setField(service, "maxChunkSize", 64 * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "maxChunks", 16384);
+        ReflectionTestUtils.setField(service, "completeWaitMs", 200L);
+        ReflectionTestUtils.setField(service, "maxFileSize", 10L * 1024 * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+
+        session = new UploadSession(SESSION_ID, "data.bin", null, UploadSession.Target.FILE, CONTENT.length,
+                CHUNK_SIZE, null, "user", LocalDateTime.now().plusHours(1));
+
+        lenient().when(fileStorageService.tempPath(anyString()))
+                .thenAnswer(invocation -> tempDir.resolve((String) invocation.getArgument(0)));
+        lenient().when(sessionRepository.save(any(UploadSession.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(sessionRepository.findStatusById(SESSION_ID))
+                .thenAnswer(invocation -> Optional.of(status.get()));
+        lenient().when(sessionRepository.updateStatus(eq(SESSION_ID), any(), any()))
+                .thenAnswer(invocation -> status.compareAndSet(invocation.getArgument(1), invocation.getArgument(2))
+                        ? 1 : 0);
+        lenient().when(chunkRepository.save(any(UploadChunk.class))).thenAnswer(invocation -> {
+            UploadChunk chunk = invocation.getArgument(0);
+            recorded.add(chunk.getChunkIndex());
+            return chunk;
+        });
+        lenient().when(chunkRepository.deleteBySessionIdAndChunkIndex(eq(SESSION_ID), anyInt()))
+                .thenAnswer(invocation -> recorded.remove((Integer) invocation.getArgument(1)) ? 1 : 0);
+        lenient().when(chunkRepository.findChunkIndexes(SESSION_ID))
+                .thenAnswer(invocation -> new ArrayList<>(recorded));
+    }
+
+    @Test
+    void recordsAVerifiedChunkAtItsOffset() throws IOException {
+        service.putChunk(session, 1, chunk(1), sha256(chunk(1)));
+
+        assertEquals(List.of(1), service.receivedChunks(session));
+        byte[] written = Files.readAllBytes(tempDir.resolve("session-" + SESSION_ID + ".part"));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 4, 8), Arrays.copyOfRange(written, 4, 8));
+    }
+
+    @Test
+    void failedChecksumOnRetryLeavesTheChunkMissing() throws IOException {
+        service.putChunk(session, 0, chunk(0), null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.putChunk(session, 0, chunk(0), sha256("wrong".getBytes(StandardCharsets.US_ASCII))));
+
+        assertTrue(service.receivedChunks(session).isEmpty());
+    }
+
+    @Test
+    void shortOrOverlongRetryLeavesTheChunkMissing() throws IOException {
+        service.putChunk(session, 0, chunk(0), null);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.putChunk(session, 0, stream("ab"), null));
+        assertTrue(service.receivedChunks(session).isEmpty());
+
+        service.putChunk(session, 0, chunk(0), null);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.putChunk(session, 0, stream("abcde"), null));
+        assertTrue(service.receivedChunks(session).isEmpty());
+    }
+
+    @Test
+    void rejectsChunksOnceCompletionHasStarted() {
+        status.set(UploadSession.Status.COMPLETING);
+
+        assertThrows(IllegalStateException.class, () -> service.putChunk(session, 0, chunk(0), null));
+
+        verify(chunkRepository, never()).deleteBySessionIdAndChunkIndex(anyString(), anyInt());
+        assertTrue(recorded.isEmpty());
+    }
+
+    @Test
+    void rejectsAnIndexOutsideTheFile() {
+        assertThrows(IllegalArgumentException.class, () -> service.putChunk(session, 3, chunk(0), null));
+        assertThrows(IllegalArgumentException.class, () -> service.putChunk(session, -1, chunk(0), null));
+    }
+
+    @Test
+    void completeWithMissingChunksFailsAndReopensTheSession() throws IOException {
+        service.putChunk(session, 0, chunk(0), null);
+        service.putChunk(session, 1, chunk(1), null);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> service.complete(session));
+
+        assertTrue(e.getMessage().contains("1 of 3 chunks are missing"), e.getMessage());
+        assertEquals(UploadSession.Status.OPEN, status.get());
+        assertEquals(UploadSession.Status.OPEN, session.getStatus());
+    }
+
+    @Test
+    void completeWaitsForChunkWritesInProgress() throws Exception {
+        BlockingStream blocked = new BlockingStream(chunk(2));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = putInBackground(2, blocked, failure);
+        assertTrue(blocked.started.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> service.complete(session));
+        assertTrue(e.getMessage().contains("still in progress"), e.getMessage());
+        assertEquals(UploadSession.Status.OPEN, status.get());
+
+        // The write passed its status check before complete() closed the session, so it still lands
+        blocked.release.countDown();
+        writer.join(5000);
+        assertNull(failure.get());
+        assertEquals(List.of(2), service.receivedChunks(session));
+    }
+
+    @Test
+    void rejectsAConcurrentUploadOfTheSameChunk() throws Exception {
+        BlockingStream blocked = new BlockingStream(chunk(0));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = putInBackground(0, blocked, failure);
+        assertTrue(blocked.started.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.putChunk(session, 0, stream("xxxx"), null));
+        assertTrue(e.getMessage().contains("already being uploaded"), e.getMessage());
+
+        blocked.release.countDown();
+        writer.join(5000);
+        assertNull(failure.get());
+        byte[] written = Files.readAllBytes(tempDir.resolve("session-" + SESSION_ID + ".part"));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 0, 4), Arrays.copyOfRange(written, 0, 4));
+    }
+
+    @Test
+    void createRejectsChunksBelowTheMinimum() {
+        assertThrows(IllegalArgumentException.class, () -> service.create(request(10L * 1024 * 1024, 1024), "user"));
+    }
+
+    @Test
+    void createAllowsASmallChunkForAFileThatFitsInIt() {
+        UploadSession created = service.create(request(100, 1024), "user");
+
+        assertEquals(1, created.getTotalChunks());
+    }
+
+    @Test
+    void createRejectsTooManyChunks() {
+        ReflectionTestUtils.setField(service, "maxChunks", 10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create(request(11L * 1024 * 1024, 1024 * 1024), "user"));
+    }
+
+    private Thread putInBackground(int index, InputStream content, AtomicReference<Throwable> failure) {
+        Thread writer = new Thread(() -> {
+            try {
+                service.putChunk(session, index, content, null);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        return writer;
+    }
+
+    private static UploadSessionRequest request(long totalSize, int chunkSize) {
+        UploadSessionRequest request = new UploadSessionRequest();
+        request.setFileName("data.bin");
+        request.setTotalSize(totalSize);
+        request.setChunkSize(chunkSize);
+        return request;
+    }
+
+    private static InputStream chunk(int index) {
+        int start = index * CHUNK_SIZE;
+        return new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, start, Math.min(CONTENT.length, start + CHUNK_SIZE)));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String sha256(InputStream in) throws IOException {
+        return sha256(in.readAllBytes());
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Holds the first read until released, to keep a chunk write in progress.
+     */
+    private static class BlockingStream extends InputStream {
+        private final InputStream content;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingStream(InputStream content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read() throws IOException {
+            await();
+            return content.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            await();
+            return content.read(buffer, offset, length);
+        }
+
+        private void await() throws IOException {
+            started.countDown();
+            try {
+                if (!release.await(5, TimeUnit.SECONDS)) {
+                    throw new IOException("Never released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}